@@ -2,17 +2,15 @@ package com.mct.touchutils.test;
 
 import android.content.Context;
 import android.util.AttributeSet;
-import android.util.Property;
-import android.view.View;
 import android.view.WindowManager;
 import android.widget.FrameLayout;
 
-import androidx.annotation.NonNull;
-import androidx.dynamicanimation.animation.FloatPropertyCompat;
+import com.mct.touchutils.WindowPositionProperties;
 
 class BubbleBaseLayout extends FrameLayout {
     private WindowManager windowManager;
     private WindowManager.LayoutParams params;
+    private WindowPositionProperties positionProperties;
 
     void setWindowManager(WindowManager windowManager) {
         this.windowManager = windowManager;
@@ -30,6 +28,13 @@ class BubbleBaseLayout extends FrameLayout {
         return this.params;
     }
 
+    public WindowPositionProperties getPositionProperties() {
+        if (positionProperties == null) {
+            positionProperties = new WindowPositionProperties(getWindowManager(), getViewParams());
+        }
+        return positionProperties;
+    }
+
     boolean isAttach;
 
     public void updateLayoutParams() {
@@ -48,6 +53,9 @@ class BubbleBaseLayout extends FrameLayout {
     public synchronized void detachFromWindow() {
         if (isAttach) {
             isAttach = false;
+            if (positionProperties != null) {
+                positionProperties.cancel();
+            }
             getWindowManager().removeView(this);
         }
     }
@@ -63,81 +71,4 @@ class BubbleBaseLayout extends FrameLayout {
     public BubbleBaseLayout(Context context, AttributeSet attrs, int defStyleAttr) {
         super(context, attrs, defStyleAttr);
     }
-
-    static abstract class BubbleProperty extends Property<View, Float> {
-        public BubbleProperty(String name) {
-            super(Float.class, name);
-        }
-
-        public FloatPropertyCompat<View> getPropertyCompat() {
-            return new FloatPropertyCompat<View>(getName()) {
-                @Override
-                public float getValue(View object) {
-                    return get(object);
-                }
-
-                @Override
-                public void setValue(View object, float value) {
-                    set(object, value);
-                }
-            };
-        }
-
-        protected void refresh(@NonNull BubbleBaseLayout object) {
-            if (object.isAttachedToWindow()) {
-                object.getWindowManager().updateViewLayout(object, object.getLayoutParams());
-            }
-        }
-
-        protected BubbleBaseLayout cast(View view) {
-            if (view instanceof BubbleBaseLayout) {
-                return (BubbleBaseLayout) view;
-            }
-            return null;
-        }
-    }
-
-    public static final BubbleProperty WINDOW_X = new BubbleProperty("WINDOW_X") {
-        @Override
-        public Float get(@NonNull View object) {
-            BubbleBaseLayout layout = cast(object);
-            if (layout != null) {
-                return (float) layout.getViewParams().x;
-            }
-            return View.X.get(object);
-        }
-
-        @Override
-        public void set(@NonNull View object, @NonNull Float value) {
-            BubbleBaseLayout layout = cast(object);
-            if (layout != null) {
-                layout.getViewParams().x = value.intValue();
-                refresh(layout);
-                return;
-            }
-            View.X.set(object, value);
-        }
-    };
-
-    static final BubbleProperty WINDOW_Y = new BubbleProperty("WINDOW_Y") {
-        @Override
-        public Float get(@NonNull View object) {
-            BubbleBaseLayout layout = cast(object);
-            if (layout != null) {
-                return (float) layout.getViewParams().y;
-            }
-            return View.Y.get(object);
-        }
-
-        @Override
-        public void set(@NonNull View object, @NonNull Float value) {
-            BubbleBaseLayout layout = cast(object);
-            if (layout != null) {
-                layout.getViewParams().y = value.intValue();
-                refresh(layout);
-                return;
-            }
-            View.Y.set(object, value);
-        }
-    };
 }
@@ -1,6 +1,7 @@
 package com.mct.touchutils.test;
 
 import static com.mct.touchutils.TouchUtils.BaseTouchListener;
+import static com.mct.touchutils.TouchUtils.CompositeTouchListener;
 import static com.mct.touchutils.TouchUtils.FlingMoveToCornerListener;
 import static com.mct.touchutils.TouchUtils.FlingMoveToWallListener;
 import static com.mct.touchutils.TouchUtils.FlingMoveToWallListener.MoveMode;
@@ -62,7 +63,10 @@ public class MainActivity extends AppCompatActivity {
             removeBubble();
         } else if (id == R.id.btnMoveToCorner) {
             removeTouchListener();
-            setTouchListener(bubbleLayout, createMoveToCornerListener());
+            // press feedback on the child and fling on the bubble, in one dispatch
+            setTouchListener(bubbleLayout, new CompositeTouchListener()
+                    .addStage(createScaleListener(TouchUtils.TYPE_SHRINK), bubbleLayout.getChildAt(0))
+                    .addStage(createMoveToCornerListener()), true);
         } else if (id == R.id.btnMoveToWall) {
             removeTouchListener();
             setTouchListener(bubbleLayout, createMoveToWallListener(MoveMode.Nearest));
@@ -100,12 +104,12 @@ public class MainActivity extends AppCompatActivity {
 
             @Override
             protected FloatPropertyCompat<View> getPropX() {
-                return BubbleBaseLayout.WINDOW_X.getPropertyCompat();
+                return bubbleLayout.getPositionProperties().getPropX();
             }
 
             @Override
             protected FloatPropertyCompat<View> getPropY() {
-                return BubbleBaseLayout.WINDOW_Y.getPropertyCompat();
+                return bubbleLayout.getPositionProperties().getPropY();
             }
         };
     }
@@ -127,12 +131,12 @@ public class MainActivity extends AppCompatActivity {
 
             @Override
             protected FloatPropertyCompat<View> getPropX() {
-                return BubbleBaseLayout.WINDOW_X.getPropertyCompat();
+                return bubbleLayout.getPositionProperties().getPropX();
             }
 
             @Override
             protected FloatPropertyCompat<View> getPropY() {
-                return BubbleBaseLayout.WINDOW_Y.getPropertyCompat();
+                return bubbleLayout.getPositionProperties().getPropY();
             }
         };
     }
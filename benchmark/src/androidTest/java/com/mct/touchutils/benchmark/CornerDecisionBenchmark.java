@@ -0,0 +1,74 @@
+package com.mct.touchutils.benchmark;
+
+import static com.mct.touchutils.TouchUtils.FlingMoveToCornerListener;
+
+import android.graphics.Point;
+import android.graphics.Rect;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Snap decision of {@link FlingMoveToCornerListener#getCorner},
+ * it does not depend on the move mode of {@link SnapDecisionBenchmark}.
+ */
+@RunWith(AndroidJUnit4.class)
+public class CornerDecisionBenchmark {
+
+    private static final Rect AREA = new Rect(50, 150, 1030, 2250);
+    private static final Point[] PREDICT_POSITIONS = {
+            new Point(60, 160),
+            new Point(900, 300),
+            new Point(500, 1100),
+            new Point(100, 2000),
+            new Point(-300, 2600),
+    };
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private View view;
+    private int sink;
+
+    @Before
+    public void setUp() {
+        view = new View(InstrumentationRegistry.getInstrumentation().getTargetContext());
+        view.layout(0, 0, 150, 150);
+        view.setX(400);
+        view.setY(900);
+    }
+
+    @Test
+    public void getCorner() {
+        CornerListener listener = new CornerListener();
+        listener.init(view);
+        BenchmarkState state = benchmarkRule.getState();
+        int i = 0;
+        while (state.keepRunning()) {
+            sink += listener.corner(view, PREDICT_POSITIONS[i++ % PREDICT_POSITIONS.length]);
+        }
+    }
+
+    private static class CornerListener extends FlingMoveToCornerListener {
+
+        int corner(View view, Point predictPosition) {
+            return getCorner(view, predictPosition);
+        }
+
+        @NonNull
+        @Override
+        protected Rect initArea(View view) {
+            return new Rect(AREA);
+        }
+    }
+
+}
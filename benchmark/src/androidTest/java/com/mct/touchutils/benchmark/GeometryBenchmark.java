@@ -0,0 +1,94 @@
+package com.mct.touchutils.benchmark;
+
+import android.graphics.Point;
+import android.graphics.Rect;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.mct.touchutils.TouchUtils;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Static geometry utils used when a gesture ends.
+ * <br/>Reports time and allocation count per op.
+ */
+@RunWith(AndroidJUnit4.class)
+public class GeometryBenchmark {
+
+    private static final Rect AREA = new Rect(50, 150, 1030, 2250);
+    private static final Point[] POINTS = {
+            new Point(60, 160),
+            new Point(1000, 200),
+            new Point(540, 1200),
+            new Point(80, 2200),
+            new Point(1020, 2240),
+            new Point(-100, 3000),
+    };
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private int sink;
+
+    @Test
+    public void calcCorner() {
+        BenchmarkState state = benchmarkRule.getState();
+        int i = 0;
+        while (state.keepRunning()) {
+            sink += TouchUtils.calcCorner(POINTS[i++ % POINTS.length], AREA);
+        }
+    }
+
+    @Test
+    public void calcCornerPrimitive() {
+        BenchmarkState state = benchmarkRule.getState();
+        int i = 0;
+        while (state.keepRunning()) {
+            Point p = POINTS[i++ % POINTS.length];
+            sink += TouchUtils.calcCorner(p.x, p.y, AREA.left, AREA.top, AREA.right, AREA.bottom);
+        }
+    }
+
+    @Test
+    public void getCornerDistances() {
+        BenchmarkState state = benchmarkRule.getState();
+        int i = 0;
+        while (state.keepRunning()) {
+            sink += TouchUtils.getCornerDistances(POINTS[i++ % POINTS.length], AREA).size();
+        }
+    }
+
+    @Test
+    public void isNearWallPoint() {
+        BenchmarkState state = benchmarkRule.getState();
+        int i = 0;
+        while (state.keepRunning()) {
+            if (TouchUtils.isNearWallPoint(POINTS[i++ % POINTS.length], AREA)) sink++;
+        }
+    }
+
+    @Test
+    public void isNearWallPointPrimitive() {
+        BenchmarkState state = benchmarkRule.getState();
+        int i = 0;
+        while (state.keepRunning()) {
+            Point p = POINTS[i++ % POINTS.length];
+            if (TouchUtils.isNearWallPoint(p.x, p.y, AREA.left, AREA.top, AREA.right, AREA.bottom)) sink++;
+        }
+    }
+
+    @Test
+    public void distance() {
+        BenchmarkState state = benchmarkRule.getState();
+        int i = 0;
+        while (state.keepRunning()) {
+            sink += (int) TouchUtils.distance(POINTS[i % POINTS.length], POINTS[++i % POINTS.length]);
+        }
+    }
+
+}
@@ -0,0 +1,100 @@
+package com.mct.touchutils.benchmark;
+
+import static com.mct.touchutils.TouchUtils.FlingMoveToWallListener;
+import static com.mct.touchutils.TouchUtils.FlingMoveToWallListener.MoveMode;
+
+import android.graphics.Point;
+import android.graphics.Rect;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Snap decision of {@link FlingMoveToWallListener#getWall} for every {@link MoveMode},
+ * the corner decision is in {@link CornerDecisionBenchmark}.
+ */
+@RunWith(Parameterized.class)
+public class SnapDecisionBenchmark {
+
+    private static final Rect AREA = new Rect(50, 150, 1030, 2250);
+    private static final Point[] PREDICT_POSITIONS = {
+            new Point(60, 160),
+            new Point(900, 300),
+            new Point(500, 1100),
+            new Point(100, 2000),
+            new Point(-300, 2600),
+    };
+
+    @Parameterized.Parameters(name = "{0}")
+    public static List<MoveMode> modes() {
+        return Arrays.asList(MoveMode.values());
+    }
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private final MoveMode mode;
+    private View view;
+    private int sink;
+
+    public SnapDecisionBenchmark(MoveMode mode) {
+        this.mode = mode;
+    }
+
+    @Before
+    public void setUp() {
+        view = new View(InstrumentationRegistry.getInstrumentation().getTargetContext());
+        view.layout(0, 0, 150, 150);
+        view.setX(400);
+        view.setY(900);
+    }
+
+    @Test
+    public void getWall() {
+        WallListener listener = new WallListener(mode);
+        listener.init(view);
+        BenchmarkState state = benchmarkRule.getState();
+        int i = 0;
+        while (state.keepRunning()) {
+            sink += listener.wall(view, PREDICT_POSITIONS[i++ % PREDICT_POSITIONS.length]);
+        }
+    }
+
+    private static class WallListener extends FlingMoveToWallListener {
+
+        private final MoveMode mode;
+
+        WallListener(MoveMode mode) {
+            this.mode = mode;
+        }
+
+        int wall(View view, Point predictPosition) {
+            return getWall(view, predictPosition);
+        }
+
+        @NonNull
+        @Override
+        protected Rect initArea(View view) {
+            return new Rect(AREA);
+        }
+
+        @NonNull
+        @Override
+        protected MoveMode getMoveMode() {
+            return mode;
+        }
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.mct.touchutils.benchmark;
+
+import static com.mct.touchutils.TouchUtils.FlingMoveToCornerListener;
+
+import android.graphics.Rect;
+import android.view.MotionEvent;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.annotation.UiThreadTest;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * A full synthetic gesture (down -> move x {@link #MOVE_COUNT} -> up)
+ * dispatched through {@link View.OnTouchListener#onTouch}.
+ * <br/>Runs on the main thread since the listener starts spring animations, they are canceled
+ * out of the measure after each gesture.
+ */
+@RunWith(AndroidJUnit4.class)
+public class TouchDispatchBenchmark {
+
+    private static final int MOVE_COUNT = 20;
+    private static final float START_X = 400;
+    private static final float START_Y = 900;
+    private static final float STEP = 12;
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private View view;
+    private MotionEvent[] events;
+
+    @Before
+    public void setUp() {
+        view = new View(InstrumentationRegistry.getInstrumentation().getTargetContext());
+        view.layout(0, 0, 150, 150);
+        view.setX(START_X);
+        view.setY(START_Y);
+
+        // events are obtained once so the harness does not count in the allocations
+        events = new MotionEvent[MOVE_COUNT + 2];
+        events[0] = MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, START_X, START_Y, 0);
+        for (int i = 1; i <= MOVE_COUNT; i++) {
+            events[i] = MotionEvent.obtain(0, i * 8L, MotionEvent.ACTION_MOVE, START_X + i * STEP, START_Y + i * STEP, 0);
+        }
+        events[MOVE_COUNT + 1] = MotionEvent.obtain(0, (MOVE_COUNT + 1) * 8L, MotionEvent.ACTION_UP,
+                START_X + MOVE_COUNT * STEP, START_Y + MOVE_COUNT * STEP, 0);
+    }
+
+    @After
+    public void tearDown() {
+        for (MotionEvent event : events) {
+            event.recycle();
+        }
+    }
+
+    @Test
+    @UiThreadTest
+    public void flingMoveToCorner() {
+        CornerListener listener = new CornerListener();
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            for (int i = 0; i < events.length; i++) {
+                MotionEvent event = events[i];
+                // the listener offsets the location of the event, restore it
+                float step = Math.min(i, MOVE_COUNT) * STEP;
+                event.setLocation(START_X + step, START_Y + step);
+                listener.onTouch(view, event);
+            }
+            // each gesture starts from the same idle state, no spring left running
+            state.pauseTiming();
+            listener.reset(view);
+            state.resumeTiming();
+        }
+    }
+
+    private static class CornerListener extends FlingMoveToCornerListener {
+
+        void reset(View view) {
+            clearAnimation();
+            view.setX(START_X);
+            view.setY(START_Y);
+        }
+
+        @NonNull
+        @Override
+        protected Rect initArea(View view) {
+            return new Rect(50, 150, 1030, 2250);
+        }
+    }
+
+}
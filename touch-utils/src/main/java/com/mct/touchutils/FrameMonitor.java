@@ -0,0 +1,88 @@
+package com.mct.touchutils;
+
+import android.view.Choreographer;
+import android.view.Display;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Measure the intervals between the {@link Choreographer} frames while an animation runs,
+ * a frame longer than the refresh budget of the display counts the vsyncs it missed as dropped.
+ * <br/>It only observes the frames, the callback does not touch the views.
+ */
+public final class FrameMonitor {
+
+    private static final float DEFAULT_REFRESH_RATE = 60f;
+
+    private final FrameStats stats = new FrameStats();
+    private final Choreographer.FrameCallback frameCallback = this::tick;
+    private boolean isRunning;
+    private long startNanos, lastFrameNanos;
+
+    /**
+     * Restart the measure, the current one is dropped
+     *
+     * @param isPointerDown the animation follows the pointer (drag, press),
+     *                      otherwise it runs after the release (snap, release)
+     */
+    public void start(@NonNull View view, boolean isPointerDown) {
+        if (isRunning) {
+            Choreographer.getInstance().removeFrameCallback(frameCallback);
+        }
+        stats.reset(getFrameBudgetNanos(view), isPointerDown);
+        startNanos = System.nanoTime();
+        lastFrameNanos = 0;
+        isRunning = true;
+        Choreographer.getInstance().postFrameCallback(frameCallback);
+    }
+
+    /**
+     * @return the stats of the measure, null if not running. The instance is reused by the
+     * next measure, copy the values to keep them.
+     */
+    @Nullable
+    public FrameStats stop() {
+        if (!isRunning) {
+            return null;
+        }
+        isRunning = false;
+        Choreographer.getInstance().removeFrameCallback(frameCallback);
+        stats.durationNanos = System.nanoTime() - startNanos;
+        return stats;
+    }
+
+    public boolean isRunning() {
+        return isRunning;
+    }
+
+    /**
+     * Refresh period of the display of the view, 60 Hz when not attached
+     */
+    static long getFrameBudgetNanos(@NonNull View view) {
+        Display display = view.getDisplay();
+        float refreshRate = display != null ? display.getRefreshRate() : 0;
+        if (refreshRate < 1) {
+            refreshRate = DEFAULT_REFRESH_RATE;
+        }
+        return (long) (1_000_000_000L / refreshRate);
+    }
+
+    void tick(long frameTimeNanos) {
+        if (!isRunning) {
+            return;
+        }
+        stats.frameCount++;
+        if (lastFrameNanos != 0) {
+            long interval = frameTimeNanos - lastFrameNanos;
+            long missed = Math.round((double) interval / stats.budgetNanos) - 1;
+            if (missed > 0) {
+                stats.droppedFrames += (int) missed;
+            }
+            stats.worstFrameNanos = Math.max(stats.worstFrameNanos, interval);
+        }
+        lastFrameNanos = frameTimeNanos;
+        Choreographer.getInstance().postFrameCallback(frameCallback);
+    }
+}
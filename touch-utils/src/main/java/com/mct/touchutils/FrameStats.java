@@ -0,0 +1,59 @@
+package com.mct.touchutils;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Summary of one animation measured by {@link FrameMonitor}
+ */
+public final class FrameStats {
+
+    long budgetNanos;
+    boolean isPointerDown;
+    int frameCount, droppedFrames;
+    long worstFrameNanos, durationNanos;
+
+    void reset(long budgetNanos, boolean isPointerDown) {
+        this.budgetNanos = budgetNanos;
+        this.isPointerDown = isPointerDown;
+        frameCount = droppedFrames = 0;
+        worstFrameNanos = durationNanos = 0;
+    }
+
+    public long getBudgetNanos() {
+        return budgetNanos;
+    }
+
+    public boolean isPointerDown() {
+        return isPointerDown;
+    }
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    public int getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    public long getWorstFrameNanos() {
+        return worstFrameNanos;
+    }
+
+    /**
+     * From the start of the animation until it settled or was interrupted
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return (isPointerDown ? "down" : "up")
+                + " frames=" + frameCount
+                + " dropped=" + droppedFrames
+                + " worst=" + worstFrameNanos / 1000 / 1000f + "ms"
+                + " budget=" + budgetNanos / 1000 / 1000f + "ms"
+                + " duration=" + durationNanos / 1000 / 1000f + "ms";
+    }
+}
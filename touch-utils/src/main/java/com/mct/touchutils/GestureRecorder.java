@@ -0,0 +1,148 @@
+package com.mct.touchutils;
+
+import android.view.MotionEvent;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Record a {@link MotionEvent} stream into a compact binary format,
+ * attach it with {@link TouchUtils.BaseTouchListener#setRecorder(GestureRecorder)}.
+ * <p>
+ * Format: header {@code "TUGR" + version}, then for each event:
+ * <pre>
+ * action, pointerCount, sampleCount             varint
+ * eventTime - downTime                          varint
+ * rawOffsetX, rawOffsetY (delta)                zigzag varint, 1/16 px
+ * pointerId * pointerCount                      varint
+ * sample * sampleCount (history then current):
+ *     time (delta)                              zigzag varint, ms
+ *     x, y (delta) * pointerCount               zigzag varint, 1/16 px
+ * </pre>
+ * Deltas are taken against the previous sample of the same pointer index, so a
+ * sample of a slow drag usually takes a few bytes.
+ */
+public class GestureRecorder {
+
+    static final byte[] MAGIC = {'T', 'U', 'G', 'R'};
+    static final int VERSION = 1;
+    static final float FIXED_SCALE = 16f;
+
+    private byte[] buffer = new byte[1024];
+    private int size;
+    private long lastTime;
+    private int lastOffsetX, lastOffsetY;
+    private int[] lastX = new int[2], lastY = new int[2];
+
+    public GestureRecorder() {
+        reset();
+    }
+
+    public void record(@NonNull MotionEvent event) {
+        int pointerCount = event.getPointerCount();
+        int historySize = event.getHistorySize();
+        if (lastX.length < pointerCount) {
+            lastX = Arrays.copyOf(lastX, pointerCount);
+            lastY = Arrays.copyOf(lastY, pointerCount);
+        }
+        int offsetX = toFixed(event.getRawX() - event.getX());
+        int offsetY = toFixed(event.getRawY() - event.getY());
+
+        writeVarInt(event.getAction());
+        writeVarInt(pointerCount);
+        writeVarInt(historySize + 1);
+        writeVarLong(Math.max(0, event.getEventTime() - event.getDownTime()));
+        writeZigZag(offsetX - lastOffsetX);
+        writeZigZag(offsetY - lastOffsetY);
+        lastOffsetX = offsetX;
+        lastOffsetY = offsetY;
+        for (int p = 0; p < pointerCount; p++) {
+            writeVarInt(event.getPointerId(p));
+        }
+        for (int h = 0; h < historySize; h++) {
+            writeZigZag(event.getHistoricalEventTime(h) - lastTime);
+            lastTime = event.getHistoricalEventTime(h);
+            for (int p = 0; p < pointerCount; p++) {
+                writeSample(p, event.getHistoricalX(p, h), event.getHistoricalY(p, h));
+            }
+        }
+        writeZigZag(event.getEventTime() - lastTime);
+        lastTime = event.getEventTime();
+        for (int p = 0; p < pointerCount; p++) {
+            writeSample(p, event.getX(p), event.getY(p));
+        }
+    }
+
+    /**
+     * Clear the recorded events, the buffer is kept for the next recording
+     */
+    public void reset() {
+        size = 0;
+        lastTime = 0;
+        lastOffsetX = lastOffsetY = 0;
+        Arrays.fill(lastX, 0);
+        Arrays.fill(lastY, 0);
+        ensureCapacity(MAGIC.length + 1);
+        System.arraycopy(MAGIC, 0, buffer, 0, MAGIC.length);
+        size = MAGIC.length;
+        buffer[size++] = VERSION;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @NonNull
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    @NonNull
+    public GestureRecording toRecording() {
+        return new GestureRecording(ByteBuffer.wrap(toByteArray()));
+    }
+
+    public void writeTo(@NonNull OutputStream out) throws IOException {
+        out.write(buffer, 0, size);
+    }
+
+    private void writeSample(int pointer, float x, float y) {
+        int fixedX = toFixed(x);
+        int fixedY = toFixed(y);
+        writeZigZag(fixedX - lastX[pointer]);
+        writeZigZag(fixedY - lastY[pointer]);
+        lastX[pointer] = fixedX;
+        lastY[pointer] = fixedY;
+    }
+
+    private void writeZigZag(long value) {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    private void writeVarInt(int value) {
+        writeVarLong(value & 0xFFFFFFFFL);
+    }
+
+    private void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[size++] = (byte) value;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (size + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+        }
+    }
+
+    private static int toFixed(float value) {
+        return Math.round(value * FIXED_SCALE);
+    }
+}
@@ -0,0 +1,206 @@
+package com.mct.touchutils;
+
+import androidx.annotation.NonNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Read only view of the events written by {@link GestureRecorder}.
+ * <br/>Use {@link #map(File)} to read big recordings without copying them in the heap.
+ */
+public class GestureRecording {
+
+    private final ByteBuffer buffer;
+
+    public GestureRecording(@NonNull ByteBuffer buffer) {
+        this.buffer = buffer.asReadOnlyBuffer();
+        for (int i = 0; i < GestureRecorder.MAGIC.length; i++) {
+            if (this.buffer.remaining() == 0 || this.buffer.get() != GestureRecorder.MAGIC[i]) {
+                throw new IllegalArgumentException("Not a gesture recording");
+            }
+        }
+        int version = this.buffer.hasRemaining() ? this.buffer.get() : -1;
+        if (version != GestureRecorder.VERSION) {
+            throw new IllegalArgumentException("Unsupported recording version: " + version);
+        }
+        this.buffer.mark();
+    }
+
+    @NonNull
+    public static GestureRecording map(@NonNull File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            return new GestureRecording(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * @return a new reader from the first event, readers are independent of each others
+     */
+    @NonNull
+    public Reader newReader() {
+        ByteBuffer data = buffer.duplicate();
+        data.reset();
+        return new Reader(data);
+    }
+
+    /**
+     * Decode the events one by one, the values are valid until the next {@link #next()}
+     */
+    public static final class Reader {
+
+        private static final int MAX_POINTERS = 32;
+
+        private final ByteBuffer data;
+        private int action, pointerCount, sampleCount;
+        private long downTime, lastTime;
+        private int offsetX, offsetY;
+        private int[] pointerIds = new int[2];
+        private int[] lastX = new int[2], lastY = new int[2];
+        private long[] times = new long[4];
+        private float[] xs = new float[8], ys = new float[8];
+
+        Reader(@NonNull ByteBuffer data) {
+            this.data = data;
+        }
+
+        /**
+         * @return false at the end of the recording
+         * @throws IllegalStateException if the recording is truncated or corrupt
+         */
+        public boolean next() {
+            if (!data.hasRemaining()) {
+                return false;
+            }
+            int start = data.position();
+            action = readVarInt();
+            pointerCount = readVarInt();
+            sampleCount = readVarInt();
+            // each pointer id takes a byte, each sample at least 1 + 2 * pointerCount bytes
+            if (pointerCount < 1 || pointerCount > MAX_POINTERS || sampleCount < 1
+                    || (long) sampleCount * (1 + 2 * pointerCount) + pointerCount > data.remaining()) {
+                throw new IllegalStateException("Corrupt gesture recording, event at byte " + start
+                        + " has " + pointerCount + " pointers and " + sampleCount + " samples");
+            }
+            long downDelta = readVarLong();
+            offsetX += readZigZag();
+            offsetY += readZigZag();
+            ensureCapacity();
+            for (int p = 0; p < pointerCount; p++) {
+                pointerIds[p] = readVarInt();
+            }
+            for (int sample = 0; sample < sampleCount; sample++) {
+                lastTime += readZigZag();
+                times[sample] = lastTime;
+                for (int p = 0; p < pointerCount; p++) {
+                    lastX[p] += (int) readZigZag();
+                    lastY[p] += (int) readZigZag();
+                    xs[sample * pointerCount + p] = lastX[p] / GestureRecorder.FIXED_SCALE;
+                    ys[sample * pointerCount + p] = lastY[p] / GestureRecorder.FIXED_SCALE;
+                }
+            }
+            downTime = lastTime - downDelta;
+            return true;
+        }
+
+        public int getAction() {
+            return action;
+        }
+
+        public int getPointerCount() {
+            return pointerCount;
+        }
+
+        public int getPointerId(int pointer) {
+            return pointerIds[pointer];
+        }
+
+        /**
+         * @return history size + 1, the last sample is the current position of the event
+         */
+        public int getSampleCount() {
+            return sampleCount;
+        }
+
+        public long getDownTime() {
+            return downTime;
+        }
+
+        public long getEventTime() {
+            return times[sampleCount - 1];
+        }
+
+        public long getSampleTime(int sample) {
+            return times[sample];
+        }
+
+        public float getX(int sample, int pointer) {
+            return xs[sample * pointerCount + pointer];
+        }
+
+        public float getY(int sample, int pointer) {
+            return ys[sample * pointerCount + pointer];
+        }
+
+        /**
+         * @return raw x - x of the event
+         */
+        public float getRawOffsetX() {
+            return offsetX / GestureRecorder.FIXED_SCALE;
+        }
+
+        /**
+         * @return raw y - y of the event
+         */
+        public float getRawOffsetY() {
+            return offsetY / GestureRecorder.FIXED_SCALE;
+        }
+
+        private void ensureCapacity() {
+            if (pointerIds.length < pointerCount) {
+                pointerIds = Arrays.copyOf(pointerIds, pointerCount);
+                lastX = Arrays.copyOf(lastX, pointerCount);
+                lastY = Arrays.copyOf(lastY, pointerCount);
+            }
+            if (times.length < sampleCount) {
+                times = new long[sampleCount];
+            }
+            if (xs.length < sampleCount * pointerCount) {
+                xs = new float[sampleCount * pointerCount];
+                ys = new float[sampleCount * pointerCount];
+            }
+        }
+
+        private long readZigZag() {
+            long value = readVarLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        private int readVarInt() {
+            return (int) readVarLong();
+        }
+
+        private long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                if (!data.hasRemaining()) {
+                    throw new IllegalStateException("Truncated gesture recording at byte " + data.position());
+                }
+                if (shift > 63) {
+                    throw new IllegalStateException("Corrupt gesture recording, varint too long at byte " + data.position());
+                }
+                b = data.get();
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.mct.touchutils;
+
+import android.view.InputDevice;
+import android.view.MotionEvent;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Feed a {@link GestureRecording} back to a listener.
+ * <br/>The replay is driven by the caller clock with {@link #advanceTo(long)},
+ * event times are shifted so the first event happens at the start time.
+ */
+public class GestureReplayer {
+
+    private final GestureRecording recording;
+    private final View view;
+    private final View.OnTouchListener listener;
+    private GestureRecording.Reader reader;
+    private MotionEvent.PointerProperties[] properties = new MotionEvent.PointerProperties[0];
+    private MotionEvent.PointerCoords[] coords = new MotionEvent.PointerCoords[0];
+    private long timeShift;
+    private boolean hasPending;
+
+    public GestureReplayer(@NonNull GestureRecording recording,
+                           @NonNull View view,
+                           @NonNull View.OnTouchListener listener) {
+        this.recording = recording;
+        this.view = view;
+        this.listener = listener;
+    }
+
+    /**
+     * Restart the replay, the first recorded event will be dispatched at startTime
+     */
+    public void start(long startTime) {
+        reader = recording.newReader();
+        hasPending = reader.next();
+        timeShift = hasPending ? startTime - reader.getEventTime() : 0;
+    }
+
+    /**
+     * Dispatch every event due at the given time
+     *
+     * @return the number of dispatched events
+     */
+    public int advanceTo(long time) {
+        int count = 0;
+        while (hasPending && reader.getEventTime() + timeShift <= time) {
+            dispatch();
+            hasPending = reader.next();
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Dispatch all the remaining events regardless the clock
+     */
+    public int advanceToEnd() {
+        return advanceTo(Long.MAX_VALUE - timeShift);
+    }
+
+    public boolean isFinished() {
+        return !hasPending;
+    }
+
+    /**
+     * @return the time of the next event in the replay time base, or -1 when finished
+     */
+    public long getNextEventTime() {
+        return hasPending ? reader.getEventTime() + timeShift : -1;
+    }
+
+    private void dispatch() {
+        int pointerCount = reader.getPointerCount();
+        ensureCapacity(pointerCount);
+        float offsetX = reader.getRawOffsetX();
+        float offsetY = reader.getRawOffsetY();
+        for (int p = 0; p < pointerCount; p++) {
+            properties[p].id = reader.getPointerId(p);
+            properties[p].toolType = MotionEvent.TOOL_TYPE_FINGER;
+        }
+        setCoords(0, pointerCount, offsetX, offsetY);
+        MotionEvent event = MotionEvent.obtain(
+                reader.getDownTime() + timeShift, reader.getSampleTime(0) + timeShift,
+                reader.getAction(), pointerCount, properties, coords,
+                0, 0, 1f, 1f, 0, 0, InputDevice.SOURCE_TOUCHSCREEN, 0);
+        for (int sample = 1; sample < reader.getSampleCount(); sample++) {
+            setCoords(sample, pointerCount, offsetX, offsetY);
+            event.addBatch(reader.getSampleTime(sample) + timeShift, coords, 0);
+        }
+        // coords were written in raw space, move them back to the view space
+        event.offsetLocation(-offsetX, -offsetY);
+        listener.onTouch(view, event);
+        event.recycle();
+    }
+
+    private void setCoords(int sample, int pointerCount, float offsetX, float offsetY) {
+        for (int p = 0; p < pointerCount; p++) {
+            coords[p].x = reader.getX(sample, p) + offsetX;
+            coords[p].y = reader.getY(sample, p) + offsetY;
+            coords[p].pressure = 1f;
+            coords[p].size = 1f;
+        }
+    }
+
+    private void ensureCapacity(int pointerCount) {
+        if (properties.length >= pointerCount) {
+            return;
+        }
+        properties = new MotionEvent.PointerProperties[pointerCount];
+        coords = new MotionEvent.PointerCoords[pointerCount];
+        for (int p = 0; p < pointerCount; p++) {
+            properties[p] = new MotionEvent.PointerProperties();
+            coords[p] = new MotionEvent.PointerCoords();
+        }
+    }
+}
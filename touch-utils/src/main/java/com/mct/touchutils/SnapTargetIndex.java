@@ -0,0 +1,228 @@
+package com.mct.touchutils;
+
+import java.util.Arrays;
+
+/**
+ * Points and segments indexed in a uniform grid for nearest queries.
+ * <br/>The weight scales the attraction of a target: the distance used to compare the targets
+ * is distance / weight. The query visits the cells ring by ring from the cell of the point and
+ * stops once no farther cell can beat the best target, it does not allocate.
+ * <br/>Call {@link #build()} after adding the targets.
+ */
+public final class SnapTargetIndex {
+
+    private static final int MAX_CELLS = 4096;
+
+    private int count;
+    private boolean[] segments = new boolean[0];
+    private float[] x1 = new float[0], y1 = new float[0], x2 = new float[0], y2 = new float[0];
+    private float[] weights = new float[0];
+    private float maxWeight;
+
+    private float originX, originY, cellSize;
+    private int columns, rows;
+    private int[] cellStart = new int[0], cellItems = new int[0];
+
+    private int resultTarget = -1;
+    private float resultX, resultY;
+
+    public void clear() {
+        count = 0;
+        maxWeight = 0;
+        columns = rows = 0;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int addPoint(float x, float y, float weight) {
+        return add(false, x, y, x, y, weight);
+    }
+
+    public int addSegment(float x1, float y1, float x2, float y2, float weight) {
+        return add(true, x1, y1, x2, y2, weight);
+    }
+
+    /**
+     * Index the targets, the cell size is chosen for about one target per cell
+     */
+    public void build() {
+        if (count == 0) {
+            columns = rows = 0;
+            return;
+        }
+        float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            minX = Math.min(minX, Math.min(x1[i], x2[i]));
+            minY = Math.min(minY, Math.min(y1[i], y2[i]));
+            maxX = Math.max(maxX, Math.max(x1[i], x2[i]));
+            maxY = Math.max(maxY, Math.max(y1[i], y2[i]));
+        }
+        float width = maxX - minX, height = maxY - minY;
+        int cells = Math.min(count, MAX_CELLS);
+        cellSize = Math.max(1f, (float) Math.sqrt(width * height / cells));
+        if (width * height == 0) {
+            cellSize = Math.max(1f, Math.max(width, height) / cells);
+        }
+        originX = minX;
+        originY = minY;
+        columns = (int) (width / cellSize) + 1;
+        rows = (int) (height / cellSize) + 1;
+
+        // counting sort of the targets by cell, a segment goes to all the cells of its bounds
+        if (cellStart.length < columns * rows + 1) {
+            cellStart = new int[columns * rows + 1];
+        } else {
+            Arrays.fill(cellStart, 0);
+        }
+        int total = 0;
+        for (int i = 0; i < count; i++) {
+            total += forEachCell(i, null);
+        }
+        if (cellItems.length < total) {
+            cellItems = new int[total];
+        }
+        for (int cell = 0, offset = 0; cell <= columns * rows; cell++) {
+            int cellCount = cellStart[cell];
+            cellStart[cell] = offset;
+            offset += cellCount;
+        }
+        int[] fill = Arrays.copyOf(cellStart, columns * rows);
+        for (int i = 0; i < count; i++) {
+            forEachCell(i, fill);
+        }
+    }
+
+    /**
+     * @return the nearest target of the point or -1, see {@link #getResultX()}, {@link #getResultY()}
+     */
+    public int findNearest(float x, float y) {
+        resultTarget = -1;
+        if (columns == 0) {
+            return -1;
+        }
+        float bestDistance = Float.MAX_VALUE;
+        int cellX = (int) TouchUtils.coerceIn((x - originX) / cellSize, 0, columns - 1);
+        int cellY = (int) TouchUtils.coerceIn((y - originY) / cellSize, 0, rows - 1);
+        for (int ring = 0; ; ring++) {
+            int left = cellX - ring, right = cellX + ring;
+            int top = cellY - ring, bottom = cellY + ring;
+            for (int cy = Math.max(top, 0); cy <= Math.min(bottom, rows - 1); cy++) {
+                boolean isEdgeRow = cy == top || cy == bottom;
+                for (int cx = Math.max(left, 0); cx <= Math.min(right, columns - 1); cx++) {
+                    if (!isEdgeRow && cx != left && cx != right) {
+                        // inner cells were visited by the previous rings
+                        cx = right - 1;
+                        continue;
+                    }
+                    int cell = cy * columns + cx;
+                    for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                        int target = cellItems[i];
+                        float distance = distanceTo(target, x, y) / weights[target];
+                        if (distance < bestDistance) {
+                            bestDistance = distance;
+                            resultTarget = target;
+                        }
+                    }
+                }
+            }
+            if (left <= 0 && right >= columns - 1 && top <= 0 && bottom >= rows - 1) {
+                break;
+            }
+            // any target of the next rings is out of the box of this ring
+            float boxLeft = originX + left * cellSize, boxRight = originX + (right + 1) * cellSize;
+            float boxTop = originY + top * cellSize, boxBottom = originY + (bottom + 1) * cellSize;
+            float boxDistance = Math.min(Math.min(x - boxLeft, boxRight - x), Math.min(y - boxTop, boxBottom - y));
+            if (resultTarget != -1 && boxDistance > 0 && boxDistance / maxWeight >= bestDistance) {
+                break;
+            }
+        }
+        if (resultTarget != -1) {
+            getNearestPoint(resultTarget, x, y);
+        }
+        return resultTarget;
+    }
+
+    /**
+     * Compute the nearest point of a target from (x, y) into {@link #getResultX()}, {@link #getResultY()}
+     */
+    public void getNearestPoint(int target, float x, float y) {
+        if (!segments[target]) {
+            resultX = x1[target];
+            resultY = y1[target];
+            return;
+        }
+        float dx = x2[target] - x1[target];
+        float dy = y2[target] - y1[target];
+        float lengthSquared = dx * dx + dy * dy;
+        float t = lengthSquared == 0 ? 0 : TouchUtils.coerceIn(((x - x1[target]) * dx + (y - y1[target]) * dy) / lengthSquared, 0, 1);
+        resultX = x1[target] + t * dx;
+        resultY = y1[target] + t * dy;
+    }
+
+    public float getResultX() {
+        return resultX;
+    }
+
+    public float getResultY() {
+        return resultY;
+    }
+
+    private float distanceTo(int target, float x, float y) {
+        getNearestPoint(target, x, y);
+        float dx = resultX - x;
+        float dy = resultY - y;
+        return (float) Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * Count the target in its cells when fill is null, otherwise write it in its cells
+     *
+     * @return the number of cells of the target
+     */
+    private int forEachCell(int target, int[] fill) {
+        int left = (int) ((Math.min(x1[target], x2[target]) - originX) / cellSize);
+        int right = (int) ((Math.max(x1[target], x2[target]) - originX) / cellSize);
+        int top = (int) ((Math.min(y1[target], y2[target]) - originY) / cellSize);
+        int bottom = (int) ((Math.max(y1[target], y2[target]) - originY) / cellSize);
+        right = Math.min(right, columns - 1);
+        bottom = Math.min(bottom, rows - 1);
+        for (int cy = top; cy <= bottom; cy++) {
+            for (int cx = left; cx <= right; cx++) {
+                int cell = cy * columns + cx;
+                if (fill == null) {
+                    cellStart[cell]++;
+                } else {
+                    cellItems[fill[cell]++] = target;
+                }
+            }
+        }
+        return (right - left + 1) * (bottom - top + 1);
+    }
+
+    private int add(boolean segment, float x1, float y1, float x2, float y2, float weight) {
+        if (weight <= 0) {
+            throw new IllegalArgumentException("weight must be > 0");
+        }
+        if (count == weights.length) {
+            int capacity = Math.max(16, count * 2);
+            segments = Arrays.copyOf(segments, capacity);
+            this.x1 = Arrays.copyOf(this.x1, capacity);
+            this.y1 = Arrays.copyOf(this.y1, capacity);
+            this.x2 = Arrays.copyOf(this.x2, capacity);
+            this.y2 = Arrays.copyOf(this.y2, capacity);
+            weights = Arrays.copyOf(weights, capacity);
+        }
+        segments[count] = segment;
+        this.x1[count] = x1;
+        this.y1[count] = y1;
+        this.x2[count] = x2;
+        this.y2[count] = y2;
+        weights[count] = weight;
+        maxWeight = Math.max(maxWeight, weight);
+        columns = rows = 0;
+        return count++;
+    }
+}
@@ -0,0 +1,307 @@
+package com.mct.touchutils;
+
+import android.view.Choreographer;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.dynamicanimation.animation.DynamicAnimation;
+import androidx.dynamicanimation.animation.FloatPropertyCompat;
+import androidx.dynamicanimation.animation.SpringForce;
+
+import java.util.Arrays;
+
+/**
+ * Advance many springs from a single {@link Choreographer} frame callback.
+ * <br/>The spring states are kept in flat arrays indexed by channel, all the springs are
+ * stepped first then the property values are written in one pass. The frame callback is
+ * only posted while a channel is running.
+ * <br/>One instance per {@link android.os.Looper} thread, see {@link #getInstance()}.
+ */
+public final class SpringScheduler {
+
+    public interface OnSpringEndListener {
+        void onSpringEnd(int channel, boolean canceled);
+    }
+
+    private static final ThreadLocal<SpringScheduler> INSTANCE = new ThreadLocal<>();
+    // same thresholds as SpringAnimation
+    private static final float THRESHOLD_MULTIPLIER = 0.75f;
+    private static final float VELOCITY_THRESHOLD_MULTIPLIER = 1000f / 16f;
+
+    private int capacity;
+    private boolean[] inUse = new boolean[0];
+    private Object[] targets = new Object[0];
+    private FloatPropertyCompat<?>[] properties = new FloatPropertyCompat<?>[0];
+    private OnSpringEndListener[] listeners = new OnSpringEndListener[0];
+    private float[] values = new float[0], velocities = new float[0], finalPositions = new float[0];
+    private float[] stiffness = new float[0], dampingRatios = new float[0];
+    private float[] minValues = new float[0], maxValues = new float[0], thresholds = new float[0];
+    private boolean[] running = new boolean[0];
+    private int[] active = new int[0];
+    private int activeCount;
+    private int[] ended = new int[0];
+    private long lastFrameTimeNanos;
+    private boolean isScheduled;
+    private final Choreographer.FrameCallback frameCallback = this::tick;
+
+    /**
+     * @return the scheduler of the current thread, the thread must have a Looper
+     */
+    @NonNull
+    public static SpringScheduler getInstance() {
+        SpringScheduler scheduler = INSTANCE.get();
+        if (scheduler == null) {
+            scheduler = new SpringScheduler();
+            INSTANCE.set(scheduler);
+        }
+        return scheduler;
+    }
+
+    private SpringScheduler() {
+    }
+
+    /**
+     * @return a channel animating the property of the target, give it back with {@link #release(int)}
+     */
+    public <T> int acquire(@NonNull T target, @NonNull FloatPropertyCompat<T> property,
+                           @Nullable OnSpringEndListener listener) {
+        int channel = 0;
+        while (channel < capacity && inUse[channel]) {
+            channel++;
+        }
+        if (channel == capacity) {
+            grow(Math.max(8, capacity * 2));
+        }
+        inUse[channel] = true;
+        targets[channel] = target;
+        properties[channel] = property;
+        listeners[channel] = listener;
+        values[channel] = velocities[channel] = finalPositions[channel] = 0;
+        stiffness[channel] = SpringForce.STIFFNESS_MEDIUM;
+        dampingRatios[channel] = SpringForce.DAMPING_RATIO_MEDIUM_BOUNCY;
+        minValues[channel] = -Float.MAX_VALUE;
+        maxValues[channel] = Float.MAX_VALUE;
+        thresholds[channel] = DynamicAnimation.MIN_VISIBLE_CHANGE_PIXELS * THRESHOLD_MULTIPLIER;
+        running[channel] = false;
+        return channel;
+    }
+
+    /**
+     * Stop the channel without notifying its listener and forget the target
+     */
+    public void release(int channel) {
+        if (channel < 0 || !inUse[channel]) {
+            return;
+        }
+        if (running[channel]) {
+            removeActive(channel);
+        }
+        inUse[channel] = false;
+        targets[channel] = null;
+        properties[channel] = null;
+        listeners[channel] = null;
+    }
+
+    public void setSpring(int channel, float stiffness, float dampingRatio) {
+        this.stiffness[channel] = stiffness;
+        this.dampingRatios[channel] = dampingRatio;
+    }
+
+    /**
+     * The final position is clamped into the new range, a spring never settles out of it
+     */
+    public void setMinMaxValue(int channel, float min, float max) {
+        minValues[channel] = min;
+        maxValues[channel] = max;
+        finalPositions[channel] = TouchUtils.coerceIn(finalPositions[channel], min, max);
+    }
+
+    public void setMinimumVisibleChange(int channel, float minimumVisibleChange) {
+        thresholds[channel] = minimumVisibleChange * THRESHOLD_MULTIPLIER;
+    }
+
+    public void setStartVelocity(int channel, float velocity) {
+        velocities[channel] = velocity;
+    }
+
+    /**
+     * @param finalPosition clamped into the range of {@link #setMinMaxValue(int, float, float)}
+     */
+    public void animateToFinalPosition(int channel, float finalPosition) {
+        finalPositions[channel] = TouchUtils.coerceIn(finalPosition, minValues[channel], maxValues[channel]);
+        if (running[channel]) {
+            return;
+        }
+        values[channel] = getValue(channel);
+        running[channel] = true;
+        if (activeCount == 0) {
+            lastFrameTimeNanos = 0;
+        }
+        active[activeCount++] = channel;
+        if (!isScheduled) {
+            isScheduled = true;
+            Choreographer.getInstance().postFrameCallback(frameCallback);
+        }
+    }
+
+    public void cancel(int channel) {
+        if (channel < 0 || !running[channel]) {
+            return;
+        }
+        removeActive(channel);
+        velocities[channel] = 0;
+        if (listeners[channel] != null) {
+            listeners[channel].onSpringEnd(channel, true);
+        }
+    }
+
+    public boolean isRunning(int channel) {
+        return channel >= 0 && running[channel];
+    }
+
+    public float getValue(int channel) {
+        return running[channel] ? values[channel] : getPropertyValue(channel);
+    }
+
+    public float getVelocity(int channel) {
+        return velocities[channel];
+    }
+
+    /**
+     * @return the number of running channels
+     */
+    public int getActiveCount() {
+        return activeCount;
+    }
+
+    /**
+     * Advance the running channels to the frame time, called by the frame callback
+     */
+    void tick(long frameTimeNanos) {
+        isScheduled = false;
+        // the first frame only applies the start values, like DynamicAnimation
+        double deltaSeconds = lastFrameTimeNanos == 0 ? 0 : (frameTimeNanos - lastFrameTimeNanos) / 1e9;
+        lastFrameTimeNanos = frameTimeNanos;
+
+        int endedCount = 0;
+        for (int i = 0; i < activeCount; i++) {
+            int channel = active[i];
+            if (deltaSeconds > 0) {
+                step(values, velocities, channel, finalPositions[channel],
+                        stiffness[channel], dampingRatios[channel], deltaSeconds);
+            }
+            float value = TouchUtils.coerceIn(values[channel], minValues[channel], maxValues[channel]);
+            if (value > values[channel] && velocities[channel] < 0
+                    || value < values[channel] && velocities[channel] > 0) {
+                // pinned at a bound, the speed toward the outside is lost
+                velocities[channel] = 0;
+            }
+            if (Math.abs(velocities[channel]) < thresholds[channel] * VELOCITY_THRESHOLD_MULTIPLIER
+                    && Math.abs(value - finalPositions[channel]) < thresholds[channel]) {
+                value = finalPositions[channel];
+                velocities[channel] = 0;
+                ended[endedCount++] = channel;
+            }
+            values[channel] = value;
+        }
+        for (int i = 0; i < activeCount; i++) {
+            setPropertyValue(active[i], values[active[i]]);
+        }
+        for (int i = 0; i < endedCount; i++) {
+            removeActive(ended[i]);
+        }
+        // notify after all the ended channels are removed, so a listener can restart any of them
+        for (int i = 0; i < endedCount; i++) {
+            int channel = ended[i];
+            if (listeners[channel] != null) {
+                listeners[channel].onSpringEnd(channel, false);
+            }
+        }
+        if (activeCount > 0 && !isScheduled) {
+            isScheduled = true;
+            Choreographer.getInstance().postFrameCallback(frameCallback);
+        }
+    }
+
+    /**
+     * Closed form of a damped spring (unit mass), same as {@link SpringForce},
+     * advance values[index] and velocities[index] by deltaSeconds
+     */
+    static void step(float[] values, float[] velocities, int index, float finalPosition,
+                     float stiffness, float dampingRatio, double deltaSeconds) {
+        double displacement = values[index] - finalPosition;
+        double velocity = velocities[index];
+        double naturalFreq = Math.sqrt(stiffness);
+        double newDisplacement, newVelocity;
+        if (dampingRatio > 1) {
+            double root = naturalFreq * Math.sqrt(dampingRatio * dampingRatio - 1);
+            double gammaPlus = -dampingRatio * naturalFreq + root;
+            double gammaMinus = -dampingRatio * naturalFreq - root;
+            double coeffB = (gammaMinus * displacement - velocity) / (gammaMinus - gammaPlus);
+            double coeffA = displacement - coeffB;
+            double expMinus = Math.exp(gammaMinus * deltaSeconds);
+            double expPlus = Math.exp(gammaPlus * deltaSeconds);
+            newDisplacement = coeffA * expMinus + coeffB * expPlus;
+            newVelocity = coeffA * gammaMinus * expMinus + coeffB * gammaPlus * expPlus;
+        } else if (dampingRatio == 1) {
+            double coeffB = velocity + naturalFreq * displacement;
+            double exp = Math.exp(-naturalFreq * deltaSeconds);
+            newDisplacement = (displacement + coeffB * deltaSeconds) * exp;
+            newVelocity = newDisplacement * -naturalFreq + coeffB * exp;
+        } else {
+            double dampedFreq = naturalFreq * Math.sqrt(1 - dampingRatio * dampingRatio);
+            double sinCoeff = (dampingRatio * naturalFreq * displacement + velocity) / dampedFreq;
+            double exp = Math.exp(-dampingRatio * naturalFreq * deltaSeconds);
+            double cos = Math.cos(dampedFreq * deltaSeconds);
+            double sin = Math.sin(dampedFreq * deltaSeconds);
+            newDisplacement = exp * (displacement * cos + sinCoeff * sin);
+            newVelocity = newDisplacement * -naturalFreq * dampingRatio
+                    + exp * (-dampedFreq * displacement * sin + dampedFreq * sinCoeff * cos);
+        }
+        values[index] = (float) (newDisplacement + finalPosition);
+        velocities[index] = (float) newVelocity;
+    }
+
+    private void removeActive(int channel) {
+        running[channel] = false;
+        for (int i = 0; i < activeCount; i++) {
+            if (active[i] == channel) {
+                active[i] = active[--activeCount];
+                break;
+            }
+        }
+        if (activeCount == 0 && isScheduled) {
+            isScheduled = false;
+            Choreographer.getInstance().removeFrameCallback(frameCallback);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private float getPropertyValue(int channel) {
+        return ((FloatPropertyCompat<Object>) properties[channel]).getValue(targets[channel]);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void setPropertyValue(int channel, float value) {
+        ((FloatPropertyCompat<Object>) properties[channel]).setValue(targets[channel], value);
+    }
+
+    private void grow(int newCapacity) {
+        inUse = Arrays.copyOf(inUse, newCapacity);
+        targets = Arrays.copyOf(targets, newCapacity);
+        properties = Arrays.copyOf(properties, newCapacity);
+        listeners = Arrays.copyOf(listeners, newCapacity);
+        values = Arrays.copyOf(values, newCapacity);
+        velocities = Arrays.copyOf(velocities, newCapacity);
+        finalPositions = Arrays.copyOf(finalPositions, newCapacity);
+        stiffness = Arrays.copyOf(stiffness, newCapacity);
+        dampingRatios = Arrays.copyOf(dampingRatios, newCapacity);
+        minValues = Arrays.copyOf(minValues, newCapacity);
+        maxValues = Arrays.copyOf(maxValues, newCapacity);
+        thresholds = Arrays.copyOf(thresholds, newCapacity);
+        running = Arrays.copyOf(running, newCapacity);
+        active = Arrays.copyOf(active, newCapacity);
+        ended = Arrays.copyOf(ended, newCapacity);
+        capacity = newCapacity;
+    }
+}
@@ -1,13 +1,21 @@
 package com.mct.touchutils;
 
+import android.content.Context;
+import android.content.res.Configuration;
 import android.graphics.Point;
 import android.graphics.Rect;
-import android.util.Log;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.os.Trace;
 import android.util.Pair;
 import android.view.MotionEvent;
 import android.view.VelocityTracker;
 import android.view.View;
 import android.view.ViewConfiguration;
+import android.view.ViewTreeObserver;
+import android.view.animation.Animation;
 import android.view.animation.AnticipateOvershootInterpolator;
 import android.view.animation.OvershootInterpolator;
 import android.view.animation.ScaleAnimation;
@@ -25,7 +33,9 @@ import androidx.dynamicanimation.animation.SpringForce;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @noinspection unused
@@ -33,6 +43,31 @@ import java.util.List;
 public class TouchUtils {
 
     private static final String TAG = "TouchMoveUtils";
+    private static final int NEAR_DISTANCE = 8;
+    private static final float FLING_FRICTION_MULTIPLIER = 4.2f;
+    // same settle thresholds as SpringAnimation in pixels
+    private static final float SETTLE_THRESHOLD = DynamicAnimation.MIN_VISIBLE_CHANGE_PIXELS * 0.75f;
+    private static final float MIN_SETTLE_FREQUENCY = 1f;
+    private static final float MAX_SETTLE_FREQUENCY = 300f;
+    private static final int SETTLE_ITERATIONS = 20;
+
+    private static final String SECTION_TOUCH = TAG + "#onTouch";
+    private static final String SECTION_DOWN = TAG + "#onDown";
+    private static final String SECTION_FIRST_DOWN = TAG + "#onFirstDown";
+    private static final String SECTION_MOVE = TAG + "#onMove";
+    private static final String SECTION_STOP = TAG + "#onStop";
+    private static final String SECTION_POINTER = TAG + "#onPointer";
+    private static final String SECTION_INIT = TAG + "#init";
+    private static final String SECTION_HANDLE_FLING = TAG + "#handleFling";
+    private static final String SECTION_SET_VALUE = TAG + "#setValue";
+    private static final String ASYNC_GESTURE = TAG + "#gesture";
+
+    @Nullable
+    private static Tracer tracer;
+    // listeners may run on several looper threads
+    private static final AtomicInteger lastGestureCookie = new AtomicInteger();
+    @Nullable
+    private static volatile ScaledConfiguration scaledConfiguration;
 
     public static final int TOP_LEFT = 0;
     public static final int TOP_RIGHT = 1;
@@ -48,6 +83,16 @@ public class TouchUtils {
     public static final int TYPE_GROW = 0;
     public static final int TYPE_SHRINK = 1;
 
+    public static final int SCALE_MODE_ANIMATION = 0;
+    public static final int SCALE_MODE_SPRING = 1;
+
+    public static final int PREDICT_LINEAR = 0;
+    public static final int PREDICT_FRICTION = 1;
+
+    public static final int VELOCITY_TRACKER = 0;
+    public static final int VELOCITY_LSQ2 = 1;
+    public static final int VELOCITY_IMPULSE = 2;
+
     @Retention(RetentionPolicy.SOURCE)
     @IntDef({TOP_LEFT, TOP_RIGHT, BOT_LEFT, BOT_RIGHT})
     public @interface Corner {
@@ -63,21 +108,89 @@ public class TouchUtils {
     public @interface ScaleType {
     }
 
+    @Retention(RetentionPolicy.SOURCE)
+    @IntDef({SCALE_MODE_ANIMATION, SCALE_MODE_SPRING})
+    public @interface ScaleMode {
+    }
+
+    @Retention(RetentionPolicy.SOURCE)
+    @IntDef({PREDICT_LINEAR, PREDICT_FRICTION})
+    public @interface PredictMode {
+    }
+
+    @Retention(RetentionPolicy.SOURCE)
+    @IntDef({VELOCITY_TRACKER, VELOCITY_LSQ2, VELOCITY_IMPULSE})
+    public @interface VelocityStrategy {
+    }
+
     private TouchUtils() {
         throw new UnsupportedOperationException("u can't instantiate this...");
     }
 
     public static <T extends BaseTouchListener> void setTouchListener(View v, T listener) {
+        setTouchListener(v, listener, false);
+    }
+
+    /**
+     * @param isPrewarm init the listener once the view is attached and laid out,
+     *                  instead of on its first touch. The init is posted to the view,
+     *                  it runs on the looper of its window (e.g. a {@link WindowThread})
+     */
+    public static <T extends BaseTouchListener> void setTouchListener(View v, T listener, boolean isPrewarm) {
         if (v == null) {
             return;
         }
         v.setOnTouchListener(listener);
+        if (!isPrewarm || listener == null) {
+            return;
+        }
+        if (v.isAttachedToWindow() && v.isLaidOut()) {
+            // not on the caller thread: the springs are chosen for the thread of the init
+            v.post(() -> listener.prewarm(v));
+            return;
+        }
+        v.addOnLayoutChangeListener(new View.OnLayoutChangeListener() {
+            @Override
+            public void onLayoutChange(View view, int left, int top, int right, int bottom,
+                                       int oldLeft, int oldTop, int oldRight, int oldBottom) {
+                view.removeOnLayoutChangeListener(this);
+                // after the frame of the first layout
+                view.post(() -> listener.prewarm(view));
+            }
+        });
     }
 
     public interface Initializable {
         void init(View v);
     }
 
+    /**
+     * Receive the sections of the touch dispatch and the async slices of each gesture
+     * (from down until the view settled), see {@link SystemTracer}
+     */
+    public interface Tracer {
+        void beginSection(@NonNull String name);
+
+        void endSection();
+
+        void beginAsyncSection(@NonNull String name, int cookie);
+
+        void endAsyncSection(@NonNull String name, int cookie);
+    }
+
+    /**
+     * Set null (default) to disable tracing, then it only costs a field check.
+     * <br/>Should be set before the listeners receive touch, otherwise the sections may be unbalanced.
+     */
+    public static void setTracer(@Nullable Tracer tracer) {
+        TouchUtils.tracer = tracer;
+    }
+
+    @Nullable
+    public static Tracer getTracer() {
+        return tracer;
+    }
+
     ///////////////////////////////////////////////////////////////////////////
     // LISTENERS
     ///////////////////////////////////////////////////////////////////////////
@@ -88,33 +201,155 @@ public class TouchUtils {
         protected static final int STATE_MOVE = 1;
 
         private int touchSlop;
-        private int state;
-        private int lastX, lastY;
+        private final TouchState touchState = new TouchState();
+        // the state of the view receiving the event, see getTouchState
+        private TouchState currentTouch = touchState;
+        private int gestureCookie;
+        private GestureRecorder recorder;
+        @Nullable
+        private CompositeTouchListener composite;
+        private FrameMonitor frameMonitor;
+        private View layerView;
+        private int savedLayerType;
+        private final View.OnAttachStateChangeListener layerDetachListener = new View.OnAttachStateChangeListener() {
+            @Override
+            public void onViewAttachedToWindow(@NonNull View v) {
+            }
+
+            @Override
+            public void onViewDetachedFromWindow(@NonNull View v) {
+                // an animation may never end once detached
+                restoreLayer();
+            }
+        };
+        private int downCount, touchInitCount;
+
+        /**
+         * Slop state, last position and pointer of the gesture on a view
+         */
+        protected static final class TouchState {
+            private int state;
+            private int lastX, lastY;
+            private boolean isPointerDown;
+
+            public TouchState() {
+            }
+
+            public int getState() {
+                return state;
+            }
+
+            public boolean isPointerDown() {
+                return isPointerDown;
+            }
+        }
+
+        /**
+         * The state of the gesture on the view, one for the listener by default.
+         * <br/>A listener serving many views at once keeps one per view: the touches split between
+         * the children of a ViewGroup, so each pressed view receives its own down.
+         */
+        @NonNull
+        protected TouchState getTouchState(@NonNull View view, @NonNull MotionEvent event) {
+            return touchState;
+        }
 
+        /**
+         * @return the state of the view receiving the event, else of the last one
+         */
         protected final int getState() {
-            return state;
+            return currentTouch.state;
+        }
+
+        /**
+         * Record every event received by this listener, set null to stop recording
+         */
+        public final void setRecorder(@Nullable GestureRecorder recorder) {
+            this.recorder = recorder;
+        }
+
+        @Nullable
+        public final GestureRecorder getRecorder() {
+            return recorder;
+        }
+
+        /**
+         * Init out of the touch path, see {@link TouchUtils#setTouchListener(View, BaseTouchListener, boolean)}
+         */
+        public final void prewarm(@NonNull View view) {
+            if (touchSlop == 0) {
+                touchSlop = getScaledConfiguration(view.getContext()).touchSlop;
+            }
+            onPrewarm(view);
+        }
+
+        public final int getDownCount() {
+            return downCount;
+        }
+
+        /**
+         * @return how many inits ran in a touch dispatch instead of a {@link #prewarm(View)},
+         * 0 when the first touch costs the same as the next ones
+         */
+        public final int getTouchInitCount() {
+            return touchInitCount;
+        }
+
+        /**
+         * Run the init of {@link #onPrewarm(View)} from the touch dispatch, it is counted
+         */
+        protected final void prewarmInTouch(@NonNull View view) {
+            touchInitCount++;
+            onPrewarm(view);
         }
 
         @Override
         public final boolean onTouch(View view, MotionEvent event) {
+            traceBegin(SECTION_TOUCH);
+            if (recorder != null) {
+                // record before the listener can modify the event
+                recorder.record(event);
+            }
+            currentTouch = getTouchState(view, event);
             onActionTouch(view, event);
-            switch (event.getAction()) {
+            boolean result;
+            switch (event.getActionMasked()) {
                 case MotionEvent.ACTION_DOWN:
-                    return onDown(view, event);
+                    // the first down has its own section, compare it with the next ones in the trace
+                    traceBegin(downCount++ == 0 ? SECTION_FIRST_DOWN : SECTION_DOWN);
+                    result = onDown(view, event);
+                    break;
                 case MotionEvent.ACTION_MOVE:
-                    return onMove(view, event);
+                    traceBegin(SECTION_MOVE);
+                    result = onMove(view, event);
+                    break;
+                case MotionEvent.ACTION_POINTER_DOWN:
+                    traceBegin(SECTION_POINTER);
+                    result = onActionPointerDown(view, event);
+                    break;
+                case MotionEvent.ACTION_POINTER_UP:
+                    traceBegin(SECTION_POINTER);
+                    result = onActionPointerUp(view, event);
+                    break;
                 case MotionEvent.ACTION_UP:
                 case MotionEvent.ACTION_CANCEL:
-                    return onStop(view, event);
+                    traceBegin(SECTION_STOP);
+                    result = onStop(view, event);
+                    break;
                 default:
+                    traceEnd();
                     return false;
             }
+            traceEnd();
+            traceEnd();
+            return result;
         }
 
         private boolean onDown(View view, MotionEvent event) {
-            Log.d(TAG, "onActionDown ----- state = STATE_DOWN");
+            beginGestureTrace();
+            currentTouch.isPointerDown = true;
             if (touchSlop == 0) {
-                touchSlop = ViewConfiguration.get(view.getContext()).getScaledTouchSlop();
+                touchSlop = getScaledConfiguration(view.getContext()).touchSlop;
             }
             int x = (int) event.getRawX();
             int y = (int) event.getRawY();
@@ -126,30 +361,42 @@ public class TouchUtils {
         private boolean onMove(View view, @NonNull MotionEvent event) {
             int x = (int) event.getRawX();
             int y = (int) event.getRawY();
-            if (lastX == -1) {
+            TouchState touch = currentTouch;
+            if (touch.lastX == -1) {
                 // not receive down should reset
+                beginGestureTrace();
+                touch.isPointerDown = true;
                 resetTouch(x, y);
                 view.setPressed(true);
             }
-            if (state != STATE_MOVE) {
-                if (Math.abs(x - lastX) >= touchSlop || Math.abs(y - lastY) >= touchSlop) {
-                    Log.d(TAG, "onActionMove ----- state = STATE_MOVE");
-                    state = STATE_MOVE;
+            if (touch.state != STATE_MOVE) {
+                if (Math.abs(x - touch.lastX) >= touchSlop || Math.abs(y - touch.lastY) >= touchSlop) {
+                    touch.state = STATE_MOVE;
                 }
             }
             return onActionMove(view, event);
         }
 
         private boolean onStop(View view, MotionEvent event) {
+            currentTouch.isPointerDown = false;
             boolean b = onActionStop(view, event);
             resetTouch(-1, -1);
             view.setPressed(false);
+            if (isSettledOnStop()) {
+                endGestureTrace();
+            }
             return b;
         }
 
         protected void onActionTouch(@NonNull View view, @NonNull MotionEvent event) {
         }
 
+        /**
+         * Init what the first touch would, see {@link #prewarm(View)}
+         */
+        protected void onPrewarm(@NonNull View view) {
+        }
+
         protected boolean onActionDown(@NonNull View view, @NonNull MotionEvent event) {
             return false;
         }
@@ -162,6 +409,20 @@ public class TouchUtils {
             return false;
         }
 
+        /**
+         * A non primary pointer went down, see {@link MotionEvent#getActionIndex()}
+         */
+        protected boolean onActionPointerDown(@NonNull View view, @NonNull MotionEvent event) {
+            return false;
+        }
+
+        /**
+         * A non primary pointer went up, see {@link MotionEvent#getActionIndex()}
+         */
+        protected boolean onActionPointerUp(@NonNull View view, @NonNull MotionEvent event) {
+            return false;
+        }
+
         protected void performClick(@NonNull View view, @NonNull MotionEvent event) {
             view.performClick();
         }
@@ -171,35 +432,192 @@ public class TouchUtils {
         }
 
         protected boolean isTouching() {
-            return state == STATE_MOVE;
+            return currentTouch.state == STATE_MOVE;
+        }
+
+        /**
+         * In a {@link CompositeTouchListener}, claim the gesture once {@link #isTouching()}
+         */
+        protected boolean isClaimOnTouching() {
+            return false;
+        }
+
+        /**
+         * @return false when another stage of the {@link CompositeTouchListener}
+         * already clicked in this gesture or decides the click
+         */
+        protected final boolean acquireClick() {
+            return composite == null || composite.consumeClick(this);
+        }
+
+        protected final boolean isPointerDown() {
+            return currentTouch.isPointerDown;
+        }
+
+        /**
+         * @return false if the view keeps animating after up / cancel,
+         * then {@link #endGestureTrace()} must be called when it settled
+         */
+        protected boolean isSettledOnStop() {
+            return true;
+        }
+
+        /**
+         * Start measuring the frames of an animation when {@link #isMonitorFrames()},
+         * a measure still running is reported first
+         */
+        protected final void beginFrameStats(@NonNull View view) {
+            if (!isMonitorFrames()) {
+                return;
+            }
+            endFrameStats(view);
+            if (frameMonitor == null) {
+                frameMonitor = new FrameMonitor();
+            }
+            frameMonitor.start(view, isPointerDown());
+        }
+
+        protected final void endFrameStats(@NonNull View view) {
+            FrameStats stats = frameMonitor != null ? frameMonitor.stop() : null;
+            if (stats != null) {
+                onFrameStats(view, stats);
+            }
+        }
+
+        /**
+         * Render the view in a hardware layer while it animates when {@link #isUseHardwareLayer()},
+         * until {@link #restoreLayer()} or its detach. Promoting another view restores the previous one first.
+         */
+        protected final void promoteLayer(@NonNull View view) {
+            if (!isUseHardwareLayer() || layerView == view) {
+                return;
+            }
+            restoreLayer();
+            savedLayerType = view.getLayerType();
+            if (savedLayerType != View.LAYER_TYPE_HARDWARE) {
+                view.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+            }
+            view.addOnAttachStateChangeListener(layerDetachListener);
+            layerView = view;
+        }
+
+        /**
+         * Give back the layer type the view had before {@link #promoteLayer(View)}
+         */
+        protected final void restoreLayer() {
+            if (layerView == null) {
+                return;
+            }
+            if (savedLayerType != View.LAYER_TYPE_HARDWARE) {
+                layerView.setLayerType(savedLayerType, null);
+            }
+            layerView.removeOnAttachStateChangeListener(layerDetachListener);
+            layerView = null;
+        }
+
+        /**
+         * Opt in {@link #promoteLayer(View)}: worth it when the view is expensive to draw and
+         * only its properties (translation, scale, alpha...) change during the animations
+         */
+        protected boolean isUseHardwareLayer() {
+            return false;
+        }
+
+        /**
+         * Measure the frames of the animations, see {@link #onFrameStats(View, FrameStats)}
+         */
+        protected boolean isMonitorFrames() {
+            return false;
+        }
+
+        /**
+         * Summary of an animation when {@link #isMonitorFrames()},
+         * the stats are reused, copy the values to keep them
+         */
+        protected void onFrameStats(@NonNull View view, @NonNull FrameStats stats) {
+        }
+
+        protected final void beginGestureTrace() {
+            endGestureTrace();
+            if (tracer != null) {
+                gestureCookie = lastGestureCookie.incrementAndGet();
+                traceAsyncBegin(ASYNC_GESTURE, gestureCookie);
+            }
+        }
+
+        protected final void endGestureTrace() {
+            if (gestureCookie != 0) {
+                traceAsyncEnd(ASYNC_GESTURE, gestureCookie);
+                gestureCookie = 0;
+            }
         }
 
         protected void resetTouch(int x, int y) {
-            lastX = x;
-            lastY = y;
-            state = STATE_DOWN;
+            TouchState touch = currentTouch;
+            touch.lastX = x;
+            touch.lastY = y;
+            touch.state = STATE_DOWN;
         }
 
     }
 
     public static abstract class FlingMoveListener extends BaseTouchListener {
 
+        protected static final int NO_TARGET = -1;
         private static final int MIN_TAP_TIME = 1000;
         private static final float DEFAULT_STIFFNESS = SpringForce.STIFFNESS_HIGH;
         private static final float DEFAULT_DAMPING_RATIO = SpringForce.DAMPING_RATIO_NO_BOUNCY;
+        private static final float DEFAULT_FRICTION = 1f;
+        private static final float WRITE_COST_SMOOTHING = 0.2f;
+        private static final int HEAVY_LOAD_SNAP_MILLIS = 150;
         private int maximumFlingVelocity;
 
         private boolean isInit;
         private Rect area, moveArea;
         private SpringAnimation springX, springY;
+        private SpringScheduler scheduler;
+        private int channelX = -1, channelY = -1;
+        private PositionWriter positionWriter;
+        private long frameBudgetNanos;
+        private float writeCostNanos;
+        private View animatedView;
         private VelocityTracker velocityTracker;
+        private VelocityEstimator velocityEstimator;
+        private float velocityX, velocityY;
+        private float releaseVelocityX, releaseVelocityY;
         private float dX, dY;
+        private final Point commitPosition = new Point();
+        private final Point committedPosition = new Point();
+        private final Point predictPoint = new Point();
+        private int candidateTarget = NO_TARGET, candidateFrames, committedTarget = NO_TARGET;
+        // completion of the snaps: each snap takes a generation, settled once when both axes stop
+        private int snapGeneration, settledGeneration;
+        private boolean isAxisCanceled;
+        private final OnAnimationEndListener springEndListener = (animation, canceled, value, velocity) -> onAxisEnd(canceled);
+        private final SpringScheduler.OnSpringEndListener channelEndListener = (channel, canceled) -> onAxisEnd(canceled);
+        private final View.OnAttachStateChangeListener detachListener = new View.OnAttachStateChangeListener() {
+            @Override
+            public void onViewAttachedToWindow(@NonNull View v) {
+            }
+
+            @Override
+            public void onViewDetachedFromWindow(@NonNull View v) {
+                // a shed write would only be posted to the next attach
+                positionWriter.flush(v);
+                // give back the channels, the listener will init again on the next touch
+                releaseChannels();
+                settledGeneration = snapGeneration;
+            }
+        };
 
         @NonNull
         protected abstract Rect initArea(View view);
 
         protected abstract boolean isCanClick(View view);
 
+        /**
+         * @param predictPosition reused by the next release, copy it to keep it
+         */
         protected abstract void handleFling(View view, @Nullable Point predictPosition);
 
         @Override
@@ -208,19 +626,57 @@ public class TouchUtils {
             setArea(v, initArea(v));
             Rect animArea = initAnimArea(v);
 
-            maximumFlingVelocity = ViewConfiguration.get(v.getContext()).getScaledMaximumFlingVelocity();
-            springX = new SpringAnimation(v, getPropX(), 0);
+            maximumFlingVelocity = getScaledConfiguration(v.getContext()).maximumFlingVelocity;
+            animatedView = v;
+            frameBudgetNanos = FrameMonitor.getFrameBudgetNanos(v);
+            writeCostNanos = 0;
+            positionWriter = new PositionWriter(getPropX(), getPropY());
+            v.removeOnAttachStateChangeListener(detachListener);
+            v.addOnAttachStateChangeListener(detachListener);
+            int strategy = getVelocityStrategy();
+            if (strategy == VELOCITY_TRACKER) {
+                velocityEstimator = null;
+            } else if (velocityEstimator == null || velocityEstimator.getStrategy() != strategy) {
+                velocityEstimator = new VelocityEstimator(strategy);
+            }
+            if (isUseSharedScheduler() || !isMainThread()) {
+                // SpringAnimation only runs on the main thread
+                scheduler = SpringScheduler.getInstance();
+                channelX = scheduler.acquire(v, positionWriter.axisX, channelEndListener);
+                scheduler.setMinMaxValue(channelX, animArea.left, animArea.right);
+                channelY = scheduler.acquire(v, positionWriter.axisY, channelEndListener);
+                scheduler.setMinMaxValue(channelY, animArea.top, animArea.bottom);
+                return;
+            }
+            springX = new SpringAnimation(v, positionWriter.axisX, 0);
             springX.setMinValue(animArea.left);
             springX.setMaxValue(animArea.right);
-            springY = new SpringAnimation(v, getPropY(), 0);
+            springX.addEndListener(springEndListener);
+            springY = new SpringAnimation(v, positionWriter.axisY, 0);
             springY.setMinValue(animArea.top);
             springY.setMaxValue(animArea.bottom);
+            springY.addEndListener(springEndListener);
+        }
+
+        @Override
+        protected void onPrewarm(@NonNull View view) {
+            if (!isInit) {
+                traceBegin(SECTION_INIT);
+                init(view);
+                traceEnd();
+            }
         }
 
         @Override
         protected void onActionTouch(@NonNull View view, @NonNull MotionEvent event) {
             event.offsetLocation(getPropX().getValue(view), getPropY().getValue(view));
-            if (!isInit) init(view);
+            if (!isInit) {
+                prewarmInTouch(view);
+            }
+            if (velocityEstimator != null) {
+                // fed with the drag samples
+                return;
+            }
             if (velocityTracker == null) {
                 velocityTracker = VelocityTracker.obtain();
             }
@@ -233,20 +689,54 @@ public class TouchUtils {
             setDownY(getPropY().getValue(view) - event.getRawY());
             resetForce(false);
             clearAnimation();
+            candidateTarget = committedTarget = NO_TARGET;
+            candidateFrames = 0;
+            if (velocityEstimator != null) {
+                velocityEstimator.clear();
+            }
+            beginFrameStats(view);
+            promoteLayer(view);
+            if (isLowLatencyDrag() && Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+                // deliver each move as soon as it arrives instead of once per frame
+                view.requestUnbufferedDispatch(event);
+            }
+            addDragSample(view, getPropX().getValue(view), getPropY().getValue(view), event.getEventTime());
             return onDown(view, event);
         }
 
         @Override
         protected boolean onActionMove(@NonNull View view, @NonNull MotionEvent event) {
+            // all samples of the batch share the same raw offset
+            float offsetX = event.getRawX() - event.getX() + getDownX();
+            float offsetY = event.getRawY() - event.getY() + getDownY();
+            int historySize = event.getHistorySize();
+            for (int i = 0; i < historySize; i++) {
+                addDragSample(view,
+                        event.getHistoricalX(i) + offsetX,
+                        event.getHistoricalY(i) + offsetY,
+                        event.getHistoricalEventTime(i));
+            }
             float x = event.getRawX() + getDownX();
             float y = event.getRawY() + getDownY();
+            addDragSample(view, x, y, event.getEventTime());
+            boolean isLowLatency = isLowLatencyDrag();
+            if (isLowLatency && getPredictAheadMillis() > 0 && computeVelocity()) {
+                // hide the input to display delay
+                x += velocityX * getPredictAheadMillis() / 1000;
+                y += velocityY * getPredictAheadMillis() / 1000;
+            }
             if (!isCanMoveOutArea()) {
                 x = coerceIn(x, moveArea.left, moveArea.right);
                 y = coerceIn(y, moveArea.top, moveArea.bottom);
             }
-            springX.animateToFinalPosition(x);
-            springY.animateToFinalPosition(y);
+            if (isLowLatency) {
+                positionWriter.axisX.setValue(view, x);
+                positionWriter.axisY.setValue(view, y);
+            } else {
+                animateToFinalPosition(x, y);
+            }
             if (isTouching()) {
+                updateCommittedTarget(view);
                 return onMove(view, event);
             }
             return true;
@@ -254,39 +744,70 @@ public class TouchUtils {
 
         @Override
         protected boolean onActionStop(@NonNull View view, @NonNull MotionEvent event) {
+            // a shed drag write must land before the release reads the position
+            positionWriter.flush(view);
+            if (velocityEstimator != null && event.getActionMasked() == MotionEvent.ACTION_UP) {
+                velocityEstimator.addRelease(event.getEventTime());
+            }
             long eventTime = event.getEventTime() - event.getDownTime();
             boolean isHandleClick = !isTouching() && isCanClick(view);
             Point predictPosition = null;
             if (isHandleClick) {
-                if (eventTime <= getMinTapTime()) {
-                    performClick(view, event);
-                } else {
-                    performLongClick(view, event);
+                if (acquireClick()) {
+                    if (eventTime <= getMinTapTime()) {
+                        performClick(view, event);
+                    } else {
+                        performLongClick(view, event);
+                    }
                 }
             } else {
-                if (getVelocityTracker() != null) {
-                    // compute velocity
-                    getVelocityTracker().computeCurrentVelocity(1000, maximumFlingVelocity);
-                    // handle velocity
-                    float vx = getVelocityTracker().getXVelocity() * (100 - getLostVelocityPercent()) / 100;
-                    float vy = getVelocityTracker().getYVelocity() * (100 - getLostVelocityPercent()) / 100;
-                    predictPosition = new Point(
-                            (int) coerceIn(getPropX().getValue(view) + vx, moveArea.left, moveArea.right),
-                            (int) coerceIn(getPropY().getValue(view) + vy, moveArea.top, moveArea.bottom)
-                    );
+                if (computeVelocity()) {
+                    predictPosition = predictPoint;
+                    predictPosition(view, velocityX, velocityY, predictPosition);
+                    if (committedTarget != NO_TARGET && isReleasedAwayFromCommit(view)) {
+                        // a late turn shorter than the commit window
+                        committedTarget = NO_TARGET;
+                    }
                 }
             }
             resetForce(true);
+            if (isLowLatencyDrag() && !isHandleClick && predictPosition != null) {
+                // the springs take over from the finger
+                setStartVelocity(velocityX, velocityY);
+            }
+            if (predictPosition != null) {
+                releaseVelocityX = velocityX;
+                releaseVelocityY = velocityY;
+            }
+            traceBegin(SECTION_HANDLE_FLING);
             handleFling(view, predictPosition);
+            traceEnd();
+            releaseVelocityX = releaseVelocityY = 0;
             releaseTracker();
+            if (isAnimationRunning()) {
+                beginFrameStats(view);
+            } else {
+                endFrameStats(view);
+                restoreLayer();
+                endGestureTrace();
+            }
             return onStop(view, event);
         }
 
+        @Override
+        protected boolean isSettledOnStop() {
+            return false;
+        }
+
         protected final void setArea(@NonNull View v, @NonNull Rect rect) {
             int right = rect.right - v.getWidth();
             int bottom = rect.bottom - v.getHeight();
             area = rect;
-            moveArea = new Rect(area.left, area.top, right, bottom);
+            if (moveArea == null) {
+                moveArea = new Rect();
+            }
+            moveArea.set(area.left, area.top, right, bottom);
+            onAreaChanged(v, moveArea);
         }
 
         @NonNull
@@ -294,23 +815,59 @@ public class TouchUtils {
             return new Rect(area);
         }
 
+        /**
+         * Allocation free version of {@link #getArea()}
+         */
+        @NonNull
+        protected final Rect getArea(@NonNull Rect out) {
+            out.set(area);
+            return out;
+        }
+
         @NonNull
         protected final Rect getMoveArea() {
             return new Rect(moveArea);
         }
 
+        /**
+         * Allocation free version of {@link #getMoveArea()}
+         */
+        @NonNull
+        protected final Rect getMoveArea(@NonNull Rect out) {
+            out.set(moveArea);
+            return out;
+        }
+
+        /**
+         * @return null when {@link #isUseSharedScheduler()} or off the main thread,
+         * prefer {@link #animateToFinalPosition(float, float)}
+         */
         protected final SpringAnimation getSpringX() {
             return springX;
         }
 
+        /**
+         * @return null when {@link #isUseSharedScheduler()} or off the main thread,
+         * prefer {@link #animateToFinalPosition(float, float)}
+         */
         protected final SpringAnimation getSpringY() {
             return springY;
         }
 
+        /**
+         * @return null when {@link #getVelocityStrategy()} is not {@link #VELOCITY_TRACKER}
+         */
         protected final VelocityTracker getVelocityTracker() {
             return velocityTracker;
         }
 
+        /**
+         * @return null when {@link #getVelocityStrategy()} is {@link #VELOCITY_TRACKER}
+         */
+        protected final VelocityEstimator getVelocityEstimator() {
+            return velocityEstimator;
+        }
+
         protected final float getDownX() {
             return dX;
         }
@@ -335,59 +892,313 @@ public class TouchUtils {
             }
         }
 
-        protected final void clearAnimation() {
-            if (!isInit) {
-                return;
-            }
-            springX.cancel();
-            springY.cancel();
+        /**
+         * @return the snap target which was stable for {@link #getSnapCommitFrames()} moves
+         * of the last gesture, or {@link #NO_TARGET} (also when the release velocity
+         * points away from the position it was committed for)
+         */
+        protected final int getCommittedTarget() {
+            return committedTarget;
         }
 
-        protected final void resetForce(boolean isMoveToPredictPosition) {
-            if (!isInit) {
-                return;
-            }
-            if (isMoveToPredictPosition) {
-                springX.getSpring().setDampingRatio(getDampingRatioX()).setStiffness(getStiffnessX());
-                springY.getSpring().setDampingRatio(getDampingRatioY()).setStiffness(getStiffnessY());
-            } else {
-                springX.getSpring().setDampingRatio(getMoveDampingRatio()).setStiffness(getMoveStiffness());
-                springY.getSpring().setDampingRatio(getMoveDampingRatio()).setStiffness(getMoveStiffness());
+        private void addDragSample(View view, float x, float y, long eventTime) {
+            if (velocityEstimator != null) {
+                velocityEstimator.addSample(eventTime, x, y);
             }
+            onDragSample(view, x, y, eventTime);
         }
 
-        /* ----------------- CAN OVERRIDE TO RECEIVE OR MODIFY ---------------------------------- */
-
         /**
-         * This func can control min and max position
-         * when anim move to predict position
+         * Compute velocityX, velocityY in pixels per second
+         *
+         * @return false when there is no sample
          */
-        @NonNull
-        protected Rect initAnimArea(@NonNull View view) {
-            int width = 2 * view.getWidth();
-            int height = 2 * view.getHeight();
-            return new Rect(
-                    area.left - width,
-                    area.top - height,
-                    area.right - view.getWidth() + width,
-                    area.bottom - view.getHeight() + height
-            );
-        }
-
-        protected boolean onDown(View view, MotionEvent event) {
+        private boolean computeVelocity() {
+            if (velocityEstimator != null) {
+                velocityEstimator.computeCurrentVelocity(1000, maximumFlingVelocity);
+                velocityX = velocityEstimator.getXVelocity();
+                velocityY = velocityEstimator.getYVelocity();
+                return true;
+            }
+            if (velocityTracker == null) {
+                return false;
+            }
+            velocityTracker.computeCurrentVelocity(1000, maximumFlingVelocity);
+            velocityX = velocityTracker.getXVelocity();
+            velocityY = velocityTracker.getYVelocity();
             return true;
         }
 
-        protected boolean onMove(View view, MotionEvent event) {
-            return true;
+        private void predictPosition(View view, float velocityX, float velocityY, Point out) {
+            out.x = (int) coerceIn(getPropX().getValue(view) + predictDistance(velocityX), moveArea.left, moveArea.right);
+            out.y = (int) coerceIn(getPropY().getValue(view) + predictDistance(velocityY), moveArea.top, moveArea.bottom);
         }
 
-        protected boolean onStop(View view, MotionEvent event) {
-            return true;
+        private float predictDistance(float velocity) {
+            if (getPredictMode() == PREDICT_FRICTION) {
+                return getFlingDistance(velocity, getFriction());
+            }
+            return velocity * (100 - getLostVelocityPercent()) / 100;
         }
 
-        protected FloatPropertyCompat<View> getPropX() {
-            return DynamicAnimation.X;
+        private void updateCommittedTarget(View view) {
+            if (getSnapCommitFrames() <= 0 || !computeVelocity()) {
+                return;
+            }
+            predictPosition(view, velocityX, velocityY, commitPosition);
+            int target = getSnapTarget(view, commitPosition);
+            if (target != candidateTarget) {
+                candidateTarget = target;
+                candidateFrames = 0;
+            }
+            if (++candidateFrames >= getSnapCommitFrames()) {
+                committedTarget = target;
+                committedPosition.set(commitPosition.x, commitPosition.y);
+            }
+        }
+
+        private boolean isReleasedAwayFromCommit(View view) {
+            float dx = committedPosition.x - getPropX().getValue(view);
+            float dy = committedPosition.y - getPropY().getValue(view);
+            return dx * velocityX + dy * velocityY < 0;
+        }
+
+        /**
+         * Move without snapping, a pending snap is superseded and will not settle
+         */
+        protected final void animateToFinalPosition(float x, float y) {
+            settledGeneration = snapGeneration;
+            startAnimation(x, y);
+        }
+
+        private void startAnimation(float x, float y) {
+            if (scheduler != null) {
+                scheduler.animateToFinalPosition(channelX, x);
+                scheduler.animateToFinalPosition(channelY, y);
+            } else {
+                springX.animateToFinalPosition(x);
+                springY.animateToFinalPosition(y);
+            }
+        }
+
+        /**
+         * Snap to the position, in about {@link #getSnapSettleMillis()} when enabled:
+         * the stiffness of each axis is derived from its distance and the release velocity.
+         * <br/>{@link #onSnapSettled(View, boolean)} is called once when both axes stop,
+         * unless an other snap or move starts before.
+         *
+         * @return generation of the snap, see {@link #getSnapGeneration()}
+         */
+        protected final int animateToSnapPosition(float x, float y) {
+            int settleMillis = getSnapSettleMillis();
+            if (isLoadShedding() && writeCostNanos > frameBudgetNanos
+                    && (settleMillis <= 0 || settleMillis > HEAVY_LOAD_SNAP_MILLIS)) {
+                // each write costs more than a frame, a long snap would only show a few of them
+                settleMillis = HEAVY_LOAD_SNAP_MILLIS;
+            }
+            if (settleMillis > 0 && isInit) {
+                float dampingRatio = getSnapDampingRatio();
+                float startVelocityX = getSnapStartVelocity(channelX, springX, releaseVelocityX);
+                float startVelocityY = getSnapStartVelocity(channelY, springY, releaseVelocityY);
+                setForce(getSettleStiffness(getPropX().getValue(animatedView) - x, startVelocityX, dampingRatio, settleMillis),
+                        dampingRatio,
+                        getSettleStiffness(getPropY().getValue(animatedView) - y, startVelocityY, dampingRatio, settleMillis),
+                        dampingRatio);
+            }
+            snapGeneration++;
+            startAnimation(x, y);
+            return snapGeneration;
+        }
+
+        /**
+         * Generation of the last snap started, a snap is pending until it settles
+         */
+        protected final int getSnapGeneration() {
+            return snapGeneration;
+        }
+
+        protected final boolean isSnapPending() {
+            return settledGeneration != snapGeneration;
+        }
+
+        /**
+         * A SpringAnimation does not expose its velocity, the release one is used while it runs
+         */
+        private float getSnapStartVelocity(int channel, SpringAnimation spring, float releaseVelocity) {
+            if (scheduler != null) {
+                return scheduler.getVelocity(channel);
+            }
+            return spring.isRunning() || isLowLatencyDrag() ? releaseVelocity : 0;
+        }
+
+        /**
+         * Smoothed duration of a position write, measured when {@link #isLoadShedding()}
+         */
+        protected final long getWriteCostNanos() {
+            return (long) writeCostNanos;
+        }
+
+        /**
+         * Velocity of the next animation started, in pixels per second
+         */
+        protected final void setStartVelocity(float velocityX, float velocityY) {
+            if (!isInit) {
+                return;
+            }
+            if (scheduler != null) {
+                scheduler.setStartVelocity(channelX, velocityX);
+                scheduler.setStartVelocity(channelY, velocityY);
+            } else {
+                springX.setStartVelocity(velocityX);
+                springY.setStartVelocity(velocityY);
+            }
+        }
+
+        protected final boolean isAnimationRunning() {
+            if (!isInit) {
+                return false;
+            }
+            if (scheduler != null) {
+                return scheduler.isRunning(channelX) || scheduler.isRunning(channelY);
+            }
+            return springX.isRunning() || springY.isRunning();
+        }
+
+        protected final void clearAnimation() {
+            if (!isInit) {
+                return;
+            }
+            if (scheduler != null) {
+                scheduler.cancel(channelX);
+                scheduler.cancel(channelY);
+            } else {
+                springX.cancel();
+                springY.cancel();
+            }
+        }
+
+        private void onAxisEnd(boolean canceled) {
+            isAxisCanceled |= canceled;
+            if (isAnimationRunning()) {
+                return;
+            }
+            // the last position of the springs may have been shed
+            positionWriter.flush(animatedView);
+            canceled = isAxisCanceled;
+            isAxisCanceled = false;
+            if (!isPointerDown()) {
+                endFrameStats(animatedView);
+                restoreLayer();
+                endGestureTrace();
+            }
+            if (isSnapPending()) {
+                // before the callbacks, they may start the next snap
+                settledGeneration = snapGeneration;
+                onSnapSettled(animatedView, canceled);
+            }
+            onAnimationSettled(animatedView, canceled);
+        }
+
+        private void releaseChannels() {
+            if (scheduler == null) {
+                return;
+            }
+            scheduler.release(channelX);
+            scheduler.release(channelY);
+            channelX = channelY = -1;
+            scheduler = null;
+            isInit = false;
+        }
+
+        protected final void resetForce(boolean isMoveToPredictPosition) {
+            if (!isInit) {
+                return;
+            }
+            if (isMoveToPredictPosition) {
+                setForce(getStiffnessX(), getDampingRatioX(), getStiffnessY(), getDampingRatioY());
+            } else {
+                setForce(getMoveStiffness(), getMoveDampingRatio(), getMoveStiffness(), getMoveDampingRatio());
+            }
+        }
+
+        private void setForce(float stiffnessX, float dampingRatioX, float stiffnessY, float dampingRatioY) {
+            if (scheduler != null) {
+                scheduler.setSpring(channelX, stiffnessX, dampingRatioX);
+                scheduler.setSpring(channelY, stiffnessY, dampingRatioY);
+            } else {
+                springX.getSpring().setDampingRatio(dampingRatioX).setStiffness(stiffnessX);
+                springY.getSpring().setDampingRatio(dampingRatioY).setStiffness(stiffnessY);
+            }
+        }
+
+        /* ----------------- CAN OVERRIDE TO RECEIVE OR MODIFY ---------------------------------- */
+
+        /**
+         * This func can control min and max position
+         * when anim move to predict position
+         */
+        @NonNull
+        protected Rect initAnimArea(@NonNull View view) {
+            int width = 2 * view.getWidth();
+            int height = 2 * view.getHeight();
+            return new Rect(
+                    area.left - width,
+                    area.top - height,
+                    area.right - view.getWidth() + width,
+                    area.bottom - view.getHeight() + height
+            );
+        }
+
+        protected boolean onDown(View view, MotionEvent event) {
+            return true;
+        }
+
+        /**
+         * Receive every sample of the drag, including the historical samples batched
+         * in one {@link MotionEvent#ACTION_MOVE}, in order and before the drag target is updated.
+         * <br/>x, y are the drag target position (not coerced in the move area)
+         */
+        protected void onDragSample(@NonNull View view, float x, float y, long eventTime) {
+        }
+
+        protected boolean onMove(View view, MotionEvent event) {
+            return true;
+        }
+
+        protected boolean onStop(View view, MotionEvent event) {
+            return true;
+        }
+
+        /**
+         * Called by {@link #setArea(View, Rect)}, the move area must not be modified
+         */
+        protected void onAreaChanged(@NonNull View view, @NonNull Rect moveArea) {
+        }
+
+        /**
+         * Both axes stopped, canceled when an axis was stopped by {@link #clearAnimation()} (e.g. a new touch)
+         */
+        protected void onAnimationSettled(@NonNull View view, boolean canceled) {
+        }
+
+        /**
+         * The snap started by {@link #animateToSnapPosition(float, float)} stopped, called once per snap
+         * before {@link #onAnimationSettled(View, boolean)}
+         */
+        protected void onSnapSettled(@NonNull View view, boolean canceled) {
+        }
+
+        /**
+         * Drive the position with the {@link SpringScheduler} of the thread instead of
+         * two {@link SpringAnimation}, it scales better when many views are animated together.
+         * <br/>Always used off the main thread, e.g. a window of a {@link WindowThread}.
+         */
+        protected boolean isUseSharedScheduler() {
+            return false;
+        }
+
+        protected FloatPropertyCompat<View> getPropX() {
+            return DynamicAnimation.X;
         }
 
         protected FloatPropertyCompat<View> getPropY() {
@@ -426,29 +1237,297 @@ public class TouchUtils {
             return false;
         }
 
+        @Override
+        protected boolean isClaimOnTouching() {
+            return true;
+        }
+
+        /**
+         * Only used by {@link #PREDICT_LINEAR}
+         */
         @IntRange(from = 0, to = 100)
         protected int getLostVelocityPercent() {
             return 90;
         }
 
+        /**
+         * {@link #PREDICT_LINEAR}: position + velocity * (100 - {@link #getLostVelocityPercent()}) / 100
+         * <br/>{@link #PREDICT_FRICTION}: where a fling with {@link #getFriction()} would stop,
+         * same model as {@link androidx.dynamicanimation.animation.FlingAnimation}
+         */
+        @PredictMode
+        protected int getPredictMode() {
+            return PREDICT_LINEAR;
+        }
+
+        /**
+         * Only used by {@link #PREDICT_FRICTION}
+         */
+        protected float getFriction() {
+            return DEFAULT_FRICTION;
+        }
+
+        /**
+         * When greater than 0, the snap target predicted while moving is committed once it was
+         * the same for this number of moves, then the release keeps it unless it flings away from it.
+         * <br/>It avoids the target flipping with the noisy velocity of the last samples,
+         * the snap still starts on release.
+         */
+        protected int getSnapCommitFrames() {
+            return 0;
+        }
+
+        /**
+         * Resolve the snap target of a predicted position, only used when
+         * {@link #getSnapCommitFrames()} is enabled
+         */
+        protected int getSnapTarget(@NonNull View view, @NonNull Point predictPosition) {
+            return NO_TARGET;
+        }
+
+        /**
+         * Measure the cost of the position writes ({@link android.view.WindowManager#updateViewLayout},
+         * a custom property...) and adapt: above half of the frame budget the intermediate writes are
+         * skipped and the next one applies the newest position, above a frame the snaps are shortened.
+         * Back to every write once they are cheap again.
+         */
+        protected boolean isLoadShedding() {
+            return false;
+        }
+
+        /**
+         * When greater than 0, the snaps (corner, wall, target) settle in this time whatever
+         * the distance and the velocity, instead of {@link #getStiffnessX()} / {@link #getStiffnessY()}
+         */
+        protected int getSnapSettleMillis() {
+            return 0;
+        }
+
+        /**
+         * Only used by {@link #getSnapSettleMillis()}
+         */
+        protected float getSnapDampingRatio() {
+            return SpringForce.DAMPING_RATIO_NO_BOUNCY;
+        }
+
+        /**
+         * While the pointer is down, request unbuffered dispatch (API 30+) and write the position
+         * to {@link #getPropX()} / {@link #getPropY()} without the move spring,
+         * the springs only take over at the release with its velocity.
+         */
+        protected boolean isLowLatencyDrag() {
+            return false;
+        }
+
+        /**
+         * Only used by {@link #isLowLatencyDrag()}, extrapolate the drag with the velocity
+         * of the last samples, 0 to disable
+         */
+        protected int getPredictAheadMillis() {
+            return 8;
+        }
+
+        /**
+         * {@link #VELOCITY_TRACKER} uses the platform tracker with the touch events,
+         * the others use a {@link VelocityEstimator} fed with the drag samples (read on init)
+         */
+        @VelocityStrategy
+        protected int getVelocityStrategy() {
+            return VELOCITY_TRACKER;
+        }
+
         protected int getMinTapTime() {
             return MIN_TAP_TIME;
         }
 
+        /**
+         * Write the position through {@link #getPropX()} and {@link #getPropY()}, each write is traced.
+         * <br/>Under load a step (the x and y writes of a drag event or of a spring frame) is written
+         * or shed as a whole, a shed position is written on a next frame if no newer step applied it.
+         */
+        private final class PositionWriter {
+
+            private final FloatPropertyCompat<View> propertyX, propertyY;
+            private final TracedProperty axisX = new TracedProperty(true);
+            private final TracedProperty axisY = new TracedProperty(false);
+            private boolean isStepOpen, isStepShed, isStepX, isStepY;
+            private long stepCostNanos;
+            private boolean isPendingX, isPendingY;
+            private float pendingX, pendingY;
+            private long lastWriteNanos;
+            @Nullable
+            private View pendingView;
+            private boolean isFlushScheduled;
+            private final Runnable flushRunnable = () -> {
+                isFlushScheduled = false;
+                View view = pendingView;
+                if (!isPending() || view == null) {
+                    return;
+                }
+                if (isShed(SystemClock.elapsedRealtimeNanos())) {
+                    // still too soon, keep the writes under half of the time
+                    scheduleFlush(view);
+                    return;
+                }
+                flush(view);
+            };
+
+            PositionWriter(@NonNull FloatPropertyCompat<View> propertyX, @NonNull FloatPropertyCompat<View> propertyY) {
+                this.propertyX = propertyX;
+                this.propertyY = propertyY;
+            }
+
+            private boolean isPending() {
+                return isPendingX || isPendingY;
+            }
+
+            /**
+             * Write both pending axes now, as one step
+             */
+            void flush(View view) {
+                if (!isPending()) {
+                    return;
+                }
+                long start = SystemClock.elapsedRealtimeNanos();
+                if (isPendingX) {
+                    isPendingX = false;
+                    write(propertyX, view, pendingX);
+                }
+                if (isPendingY) {
+                    isPendingY = false;
+                    write(propertyY, view, pendingY);
+                }
+                pendingView = null;
+                addCostSample(lastWriteNanos - start);
+            }
+
+            private void setValue(boolean isX, View view, float value) {
+                if (!isLoadShedding()) {
+                    traceBegin(SECTION_SET_VALUE);
+                    (isX ? propertyX : propertyY).setValue(view, value);
+                    traceEnd();
+                    return;
+                }
+                long now = SystemClock.elapsedRealtimeNanos();
+                if (!isStepOpen || (isX ? isStepX : isStepY)) {
+                    // the axis is written again, the previous step is over
+                    closeStep();
+                    isStepOpen = true;
+                    isStepShed = isShed(now);
+                    stepCostNanos = 0;
+                }
+                if (isX) {
+                    isStepX = true;
+                    isPendingX = isStepShed;
+                    pendingX = value;
+                } else {
+                    isStepY = true;
+                    isPendingY = isStepShed;
+                    pendingY = value;
+                }
+                if (isStepShed) {
+                    // the drag may stop or the springs may not run, the last position must land anyway
+                    scheduleFlush(view);
+                } else {
+                    write(isX ? propertyX : propertyY, view, value);
+                    stepCostNanos += lastWriteNanos - now;
+                }
+                if (isStepX && isStepY) {
+                    closeStep();
+                }
+            }
+
+            /**
+             * One cost sample per step: the cost of a position is often paid by one axis,
+             * e.g. {@link WindowPositionProperties} commits both on the second write
+             */
+            private void closeStep() {
+                if (isStepOpen && !isStepShed) {
+                    addCostSample(stepCostNanos);
+                }
+                isStepOpen = isStepX = isStepY = false;
+            }
+
+            /**
+             * Above half of the frame budget, a step less than twice its cost after the previous write
+             */
+            private boolean isShed(long now) {
+                return writeCostNanos > frameBudgetNanos / 2f && now - lastWriteNanos < writeCostNanos * 2;
+            }
+
+            private void scheduleFlush(View view) {
+                pendingView = view;
+                if (!isFlushScheduled) {
+                    isFlushScheduled = true;
+                    view.postOnAnimation(flushRunnable);
+                }
+            }
+
+            private void write(FloatPropertyCompat<View> property, View view, float value) {
+                traceBegin(SECTION_SET_VALUE);
+                property.setValue(view, value);
+                traceEnd();
+                lastWriteNanos = SystemClock.elapsedRealtimeNanos();
+            }
+
+            private void addCostSample(long costNanos) {
+                writeCostNanos += (costNanos - writeCostNanos) * WRITE_COST_SMOOTHING;
+            }
+
+            /**
+             * An axis of the writer, animated by a spring or written by the drag
+             */
+            private final class TracedProperty extends FloatPropertyCompat<View> {
+
+                private final boolean isX;
+
+                TracedProperty(boolean isX) {
+                    super(SECTION_SET_VALUE);
+                    this.isX = isX;
+                }
+
+                @Override
+                public float getValue(View object) {
+                    // a spring restarting from the property must not jump back
+                    if (isX) {
+                        return isPendingX ? pendingX : propertyX.getValue(object);
+                    }
+                    return isPendingY ? pendingY : propertyY.getValue(object);
+                }
+
+                @Override
+                public void setValue(View object, float value) {
+                    PositionWriter.this.setValue(isX, object, value);
+                }
+            }
+        }
+
     }
 
     public static abstract class FlingMoveToCornerListener extends FlingMoveListener {
 
+        private int movingCorner;
+        private final Point movingCornerPoint = new Point();
+        private final Rect rect = new Rect();
+
         @Override
         protected boolean isCanClick(View view) {
-            return isMovingCanClick() || isNearCornerPoint(new Point(
+            Rect moveArea = getMoveArea(rect);
+            return isMovingCanClick() || isNearCornerPoint(
                     (int) getPropX().getValue(view),
-                    (int) getPropY().getValue(view)), getMoveArea());
+                    (int) getPropY().getValue(view),
+                    moveArea.left, moveArea.top, moveArea.right, moveArea.bottom);
         }
 
         @Override
         protected void handleFling(View view, Point predictPosition) {
-            moveToCorner(view, getCorner(view, predictPosition));
+            int corner = getCommittedTarget();
+            moveToCorner(view, corner != NO_TARGET ? corner : getCorner(view, predictPosition));
+        }
+
+        @Override
+        protected int getSnapTarget(@NonNull View view, @NonNull Point predictPosition) {
+            return getCorner(view, predictPosition);
         }
 
         @Corner
@@ -458,31 +1537,41 @@ public class TouchUtils {
 
         @Corner
         protected int getCorner(View view, @Nullable Point predictPosition) {
-            return predictPosition == null
-                    ? calcCorner(getCenter(view, getPropX(), getPropY()), getArea())
-                    : calcCorner(getCenter(view, predictPosition), getArea());
+            Rect area = getArea(rect);
+            int centerX, centerY;
+            if (predictPosition == null) {
+                centerX = (int) (getPropX().getValue(view) + (view.getWidth() / 2f));
+                centerY = (int) (getPropY().getValue(view) + (view.getHeight() / 2f));
+            } else {
+                centerX = predictPosition.x + (view.getWidth() / 2);
+                centerY = predictPosition.y + (view.getHeight() / 2);
+            }
+            return calcCorner(centerX, centerY, area.left, area.top, area.right, area.bottom);
         }
 
         protected void moveToCorner(@NonNull View view, @Corner int corner) {
-            Point cornerPoint = TouchUtils.getCorner(getMoveArea(), corner);
-            OnAnimationEndListener endListener = new OnAnimationEndListener() {
-                @Override
-                public void onAnimationEnd(DynamicAnimation animation, boolean canceled, float value, float velocity) {
-                    if (!canceled && !getSpringX().isRunning() && !getSpringY().isRunning()) {
-                        onMovedToCorner(view, corner, cornerPoint);
-                    }
-                    if (!getSpringX().isRunning()) getSpringX().removeEndListener(this);
-                    if (!getSpringY().isRunning()) getSpringY().removeEndListener(this);
-                }
-            };
-            getSpringX().addEndListener(endListener).animateToFinalPosition(cornerPoint.x);
-            getSpringY().addEndListener(endListener).animateToFinalPosition(cornerPoint.y);
+            Point cornerPoint = TouchUtils.getCorner(getMoveArea(rect), corner, movingCornerPoint);
+            movingCorner = corner;
+            animateToSnapPosition(cornerPoint.x, cornerPoint.y);
             onStartMoveToCorner(view, corner, cornerPoint);
         }
 
+        @Override
+        protected void onSnapSettled(@NonNull View view, boolean canceled) {
+            if (!canceled) {
+                onMovedToCorner(view, movingCorner, movingCornerPoint);
+            }
+        }
+
+        /**
+         * @param cornerPoint reused by the next move, copy it to keep it
+         */
         protected void onStartMoveToCorner(@NonNull View view, @Corner int corner, @NonNull Point cornerPoint) {
         }
 
+        /**
+         * @param cornerPoint reused by the next move, copy it to keep it
+         */
         protected void onMovedToCorner(@NonNull View view, @Corner int corner, Point cornerPoint) {
         }
 
@@ -490,6 +1579,11 @@ public class TouchUtils {
 
     public static abstract class FlingMoveToWallListener extends FlingMoveListener {
 
+        private int movingWall;
+        private final Point movingWallPoint = new Point();
+        private final Rect rect = new Rect();
+        private final Point center = new Point();
+
         public enum MoveMode {
             Left(LEFT), Top(TOP), Right(RIGHT), Bot(BOT),
             Vertical(UNSET),   // doc
@@ -501,13 +1595,31 @@ public class TouchUtils {
             MoveMode(int wall) {
                 this.wall = wall;
             }
+
+            /**
+             * @return true if the view can be moved to the wall in this mode
+             */
+            public boolean hasWall(@Wall int wall) {
+                switch (this) {
+                    case Vertical:
+                        return wall == LEFT || wall == RIGHT;
+                    case Horizontal:
+                        return wall == TOP || wall == BOT;
+                    case Nearest:
+                        return true;
+                    default:
+                        return this.wall == wall;
+                }
+            }
         }
 
         @Override
         protected boolean isCanClick(View view) {
-            return isMovingCanClick() || isNearWallPoint(new Point(
+            Rect moveArea = getMoveArea(rect);
+            return isMovingCanClick() || isNearWallPoint(getMoveMode(),
                     (int) getPropX().getValue(view),
-                    (int) getPropY().getValue(view)), getMoveArea());
+                    (int) getPropY().getValue(view),
+                    moveArea.left, moveArea.top, moveArea.right, moveArea.bottom);
         }
 
         @Override
@@ -526,247 +1638,1537 @@ public class TouchUtils {
             if (mode.wall != UNSET) {
                 return mode.wall;
             }
-            Rect moveArea = getMoveArea();
-            float centerAreaX = moveArea.exactCenterX();
-            float centerAreaY = moveArea.exactCenterY();
+            Rect moveArea = getMoveArea(rect);
             Point centerView = predictPosition == null
-                    ? getCenter(view, getPropX(), getPropY())
-                    : getCenter(view, predictPosition);
-            switch (mode) {
-                default:
-                case Vertical:
-                    return centerView.x < centerAreaX ? LEFT : RIGHT;
-                case Horizontal:
-                    return centerView.y < centerAreaY ? TOP : BOT;
-                case Nearest:
-                    int predictWallVer = centerView.x < centerAreaX ? LEFT : RIGHT;
-                    int predictWallHoz = centerView.y < centerAreaY ? TOP : BOT;
+                    ? getCenter(view, getPropX(), getPropY(), center)
+                    : getCenter(view, predictPosition, center);
+            return TouchUtils.getWall(mode, centerView.x, centerView.y,
+                    moveArea.left, moveArea.top, moveArea.right, moveArea.bottom);
+        }
+
+        @Override
+        protected int getSnapTarget(@NonNull View view, @NonNull Point predictPosition) {
+            return getWall(view, predictPosition);
+        }
+
+        protected void moveToWall(View view, Point predictPosition) {
+            Rect moveArea = getMoveArea(rect);
+            Point wallPoint = movingWallPoint;
+            wallPoint.set(0, 0);
+            int wall = getCommittedTarget() != NO_TARGET ? getCommittedTarget() : getWall(view, predictPosition);
+            switch (wall) {
+                case LEFT:
+                case RIGHT:
+                    wallPoint.x = wall == LEFT ? moveArea.left : moveArea.right;
+                    wallPoint.y = predictPosition == null ? (int) getPropY().getValue(view) : predictPosition.y;
+                    break;
+                case TOP:
+                case BOT:
+                    wallPoint.x = predictPosition == null ? (int) getPropX().getValue(view) : predictPosition.x;
+                    wallPoint.y = wall == TOP ? moveArea.top : moveArea.bottom;
+                    break;
+            }
+
+            movingWall = wall;
+            animateToSnapPosition(wallPoint.x, wallPoint.y);
+            onStartMoveToWall(view, wall, wallPoint);
+        }
+
+        @Override
+        protected void onSnapSettled(@NonNull View view, boolean canceled) {
+            if (!canceled) {
+                onMovedToWall(view, movingWall, movingWallPoint);
+            }
+        }
+
+        @NonNull
+        protected MoveMode getMoveMode() {
+            return MoveMode.Vertical;
+        }
+
+        /**
+         * @param wallPoint reused by the next move, copy it to keep it
+         */
+        protected void onStartMoveToWall(@NonNull View view, @Wall int wall, Point wallPoint) {
+        }
+
+        /**
+         * @param wallPoint reused by the next move, copy it to keep it
+         */
+        protected void onMovedToWall(@NonNull View view, @Wall int wall, Point wallPoint) {
+        }
+
+    }
+
+    /**
+     * Snap to the nearest target of a {@link SnapTargetIndex}: points or segments with weights,
+     * e.g. dock slots, grid cells or edges.
+     * <br/>The targets are positions of the view (values of {@link #getPropX()}, {@link #getPropY()}),
+     * they are built by {@link #onBuildTargets} each time the area changes.
+     */
+    public static abstract class FlingMoveToTargetListener extends FlingMoveListener {
+
+        private final SnapTargetIndex targetIndex = new SnapTargetIndex();
+        private int movingTarget;
+        private float movingTargetX, movingTargetY;
+
+        protected abstract void onBuildTargets(@NonNull View view, @NonNull Rect moveArea, @NonNull SnapTargetIndex index);
+
+        @Override
+        protected void onAreaChanged(@NonNull View view, @NonNull Rect moveArea) {
+            targetIndex.clear();
+            onBuildTargets(view, moveArea, targetIndex);
+            targetIndex.build();
+        }
+
+        @Override
+        protected boolean isCanClick(View view) {
+            if (isMovingCanClick()) {
+                return true;
+            }
+            float x = getPropX().getValue(view);
+            float y = getPropY().getValue(view);
+            if (targetIndex.findNearest(x, y) == NO_TARGET) {
+                return false;
+            }
+            float dx = targetIndex.getResultX() - x;
+            float dy = targetIndex.getResultY() - y;
+            return dx * dx + dy * dy <= NEAR_DISTANCE * NEAR_DISTANCE;
+        }
+
+        @Override
+        protected void handleFling(View view, Point predictPosition) {
+            int target = getCommittedTarget();
+            moveToTarget(view, target != NO_TARGET ? target : getTarget(view, predictPosition), predictPosition);
+        }
+
+        @Override
+        protected int getSnapTarget(@NonNull View view, @NonNull Point predictPosition) {
+            return getTarget(view, predictPosition);
+        }
+
+        /**
+         * @return index of the nearest target or {@link #NO_TARGET} when there is no target
+         */
+        protected int getTarget(View view, @Nullable Point predictPosition) {
+            return predictPosition == null
+                    ? targetIndex.findNearest(getPropX().getValue(view), getPropY().getValue(view))
+                    : targetIndex.findNearest(predictPosition.x, predictPosition.y);
+        }
+
+        protected void moveToTarget(@NonNull View view, int target, @Nullable Point predictPosition) {
+            if (target == NO_TARGET) {
+                return;
+            }
+            // segments snap to their nearest point from the predict position
+            if (predictPosition == null) {
+                targetIndex.getNearestPoint(target, getPropX().getValue(view), getPropY().getValue(view));
+            } else {
+                targetIndex.getNearestPoint(target, predictPosition.x, predictPosition.y);
+            }
+            movingTarget = target;
+            movingTargetX = targetIndex.getResultX();
+            movingTargetY = targetIndex.getResultY();
+            animateToSnapPosition(movingTargetX, movingTargetY);
+            onStartMoveToTarget(view, target, movingTargetX, movingTargetY);
+        }
+
+        @Override
+        protected void onSnapSettled(@NonNull View view, boolean canceled) {
+            if (!canceled) {
+                onMovedToTarget(view, movingTarget, movingTargetX, movingTargetY);
+            }
+        }
+
+        @NonNull
+        protected final SnapTargetIndex getTargetIndex() {
+            return targetIndex;
+        }
+
+        protected void onStartMoveToTarget(@NonNull View view, int target, float x, float y) {
+        }
+
+        protected void onMovedToTarget(@NonNull View view, int target, float x, float y) {
+        }
+
+    }
+
+    /**
+     * Scale the view while it is pressed.
+     * <br/>One instance may serve many views, e.g. the items of a list: the state of a press is kept
+     * per view from its down until its release settled, then pooled for the next press.
+     */
+    public static class TouchScaleListener extends BaseTouchListener {
+
+        private static final int PIVOT_TYPE = ScaleAnimation.RELATIVE_TO_SELF;
+        private static final float PIVOT_VAL = 0.5f;
+        private static final float DEFAULT_REAL_SCALE = 1f;
+        private static final float DEFAULT_PRESS_SCALE = 0.25f;
+        private static final float DEFAULT_RELEASE_SCALE = 0.2f;
+        private static final int DEFAULT_DURATION = 250;
+        private static final int MIN_TAP_TIME = 200;
+        private static final int DEFAULT_OFFSET_RELEASE = 0;
+        private static final int DEFAULT_ALLOW_AUTO_RELEASE = 1;
+        private static final int DEFAULT_AUTO_RELEASE_DELAY = ViewConfiguration.getLongPressTimeout();
+        private static final float DEFAULT_CLICK_DAMPING_RATIO = SpringForce.DAMPING_RATIO_MEDIUM_BOUNCY;
+        // same settle threshold as SpringAnimation
+        private static final float SCALE_THRESHOLD = DynamicAnimation.MIN_VISIBLE_CHANGE_SCALE * 0.75f;
+        // the springs of a press animate its view, they stay with the pooled state for the next press
+        private static final FloatPropertyCompat<PressState> PRESS_SCALE_X = new FloatPropertyCompat<PressState>("pressScaleX") {
+            @Override
+            public float getValue(PressState press) {
+                return press.view.getScaleX();
+            }
+
+            @Override
+            public void setValue(PressState press, float value) {
+                press.view.setScaleX(value);
+            }
+        };
+        private static final FloatPropertyCompat<PressState> PRESS_SCALE_Y = new FloatPropertyCompat<PressState>("pressScaleY") {
+            @Override
+            public float getValue(PressState press) {
+                return press.view.getScaleY();
+            }
+
+            @Override
+            public void setValue(PressState press, float value) {
+                press.view.setScaleY(value);
+            }
+        };
+
+        // only the pressed views have an entry, one listener may serve every view of a list.
+        // An entry is removed when its press ends or its view detaches.
+        private final HashMap<View, PressState> pressStates = new HashMap<>();
+        private final List<PressState> pressPool = new ArrayList<>();
+        private final int[] location = new int[2];
+        private int stiffnessDuration = -1;
+        private float stiffnessPressScale, stiffness;
+
+        /**
+         * Press of a view, from its down until the release settled after the lift
+         */
+        private final class PressState {
+            private View view;
+            // the fingers of a ViewGroup split between its children, each press has its own gesture
+            private final TouchState touch = new TouchState();
+            private boolean isClickAcquired;
+            private MotionEvent downEvent;
+            private boolean isRelease;
+            // the real up or cancel arrived, the press ends once the release settled
+            private boolean isLifted;
+            private Handler autoReleaseHandler;
+            private boolean isAutoReleasePending;
+            private final Runnable autoReleaseRunnable = () -> autoRelease(this);
+            private SpringAnimation springScaleX, springScaleY;
+            private final OnAnimationEndListener springScaleEndListener = (animation, canceled, value, velocity) -> {
+                if (!isScaling()) {
+                    onScaleEnd(this);
+                }
+            };
+            private SpringScheduler scaleScheduler;
+            private int channelScaleX = -1, channelScaleY = -1;
+            private final SpringScheduler.OnSpringEndListener channelScaleEndListener = (channel, canceled) -> {
+                if (!isScaling()) {
+                    onScaleEnd(this);
+                }
+            };
+            private Animation currentAnimation;
+            private final Animation.AnimationListener scaleAnimationListener = new Animation.AnimationListener() {
+                @Override
+                public void onAnimationStart(Animation animation) {
+                }
+
+                @Override
+                public void onAnimationEnd(Animation animation) {
+                    // a replaced animation may end after the next one started
+                    if (animation == currentAnimation) {
+                        currentAnimation = null;
+                        onScaleEnd(PressState.this);
+                    }
+                }
+
+                @Override
+                public void onAnimationRepeat(Animation animation) {
+                }
+            };
+            private FrameMonitor frameMonitor;
+            private boolean isLayerPromoted;
+            private int savedLayerType;
+            private int releaseLeft, releaseTop, releaseRight, releaseBottom;
+            private boolean isBoundsValid;
+            private final View.OnLayoutChangeListener boundsLayoutListener =
+                    (v, left, top, right, bottom, oldLeft, oldTop, oldRight, oldBottom) -> isBoundsValid = false;
+            // a scroll of an ancestor moves the view on screen without a layout of it
+            private ViewTreeObserver boundsObserver;
+            private final ViewTreeObserver.OnScrollChangedListener boundsScrollListener = () -> isBoundsValid = false;
+            private final View.OnAttachStateChangeListener detachListener = new View.OnAttachStateChangeListener() {
+                @Override
+                public void onViewAttachedToWindow(@NonNull View v) {
+                }
+
+                @Override
+                public void onViewDetachedFromWindow(@NonNull View v) {
+                    onPressDetached(PressState.this);
+                }
+            };
+
+            private boolean isScaling() {
+                if (currentAnimation != null) {
+                    return true;
+                }
+                if (scaleScheduler != null && (scaleScheduler.isRunning(channelScaleX) || scaleScheduler.isRunning(channelScaleY))) {
+                    return true;
+                }
+                return springScaleX != null && (springScaleX.isRunning() || springScaleY.isRunning());
+            }
+        }
+
+        @Override
+        public void init(View v) {
+        }
+
+        @NonNull
+        @Override
+        protected final TouchState getTouchState(@NonNull View view, @NonNull MotionEvent event) {
+            PressState press = event.getActionMasked() == MotionEvent.ACTION_DOWN
+                    ? obtainPressState(view)
+                    : getPressState(view);
+            // without a press the events are ignored
+            return press != null ? press.touch : super.getTouchState(view, event);
+        }
+
+        @Override
+        protected final void onActionTouch(@NonNull View view, @NonNull MotionEvent event) {
+            super.onActionTouch(view, event);
+        }
+
+        @Override
+        protected final boolean onActionDown(@NonNull View view, @NonNull MotionEvent event) {
+            PressState press = obtainPressState(view);
+            press.isRelease = false;
+            press.isLifted = false;
+            press.isClickAcquired = false;
+            if (press.downEvent != null) {
+                press.downEvent.recycle();
+            }
+            press.downEvent = MotionEvent.obtain(event);
+            float from = getRealScale();
+            float to = from + (getScaleType() == TYPE_GROW ? getPressScale() : -getPressScale());
+            promoteLayer(press);
+            if (getScaleMode() == SCALE_MODE_SPRING) {
+                animateSpringScale(press, to, SpringForce.DAMPING_RATIO_NO_BOUNCY, 0);
+                beginFrameStats(press);
+            } else {
+                ScaleAnimation scaleAnimation = new ScaleAnimation(from, to, from, to, PIVOT_TYPE, PIVOT_VAL, PIVOT_TYPE, PIVOT_VAL);
+                scaleAnimation.setDuration(getDuration());
+                scaleAnimation.setFillAfter(true);
+                startScaleAnimation(press, scaleAnimation);
+            }
+
+            // the release bounds are kept until a layout of the view or a scroll
+            updateBounds(press);
+            observeScroll(press);
+
+            // auto release touch
+            removeAutoRelease(press);
+            if (getAllowAutoRelease() != 0) {
+                // on the looper delivering the touch, not necessarily the main one
+                Looper looper = Looper.myLooper();
+                if (press.autoReleaseHandler == null || press.autoReleaseHandler.getLooper() != looper) {
+                    press.autoReleaseHandler = new Handler(looper);
+                }
+                press.isAutoReleasePending = true;
+                press.autoReleaseHandler.postDelayed(press.autoReleaseRunnable, getAutoReleaseDelay());
+            }
+            return true;
+        }
+
+        @Override
+        protected final boolean onActionMove(@NonNull View view, @NonNull MotionEvent event) {
+            PressState press = getPressState(view);
+            if (press == null || press.isRelease) {
+                return true;
+            }
+            if (!press.isBoundsValid) {
+                updateBounds(press);
+            }
+            float x = event.getRawX();
+            float y = event.getRawY();
+            if (x < press.releaseLeft || x > press.releaseRight || y < press.releaseTop || y > press.releaseBottom) {
+                release(press, false);
+            }
+            return true;
+        }
+
+        @Override
+        protected final boolean onActionStop(@NonNull View view, @NonNull MotionEvent event) {
+            PressState press = getPressState(view);
+            if (press == null) {
+                return true;
+            }
+            press.isLifted = true;
+            if (press.isRelease) {
+                // released while down, by a move out of the bounds or the auto release
+                if (!press.isScaling()) {
+                    recyclePressState(press);
+                }
+                return true;
+            }
+            boolean isHasClick = false;
+            if (event.getAction() == MotionEvent.ACTION_UP) {
+                if (press.touch.getState() == STATE_DOWN) {
+                    isHasClick = true;
+                    long eventTime = event.getEventTime() - event.getDownTime();
+                    if (acquireClick(press)) {
+                        if (eventTime <= getMinTapTime()) {
+                            performClick(view, event);
+                        } else {
+                            performLongClick(view, event);
+                        }
+                    }
+                }
+            }
+            release(press, isHasClick);
+            return true;
+        }
+
+        /**
+         * Release the press of the view, if it is pressed
+         */
+        protected final void release(@Nullable View view, boolean isHasClick) {
+            PressState press = getPressState(view);
+            if (press != null) {
+                release(press, isHasClick);
+            }
+        }
+
+        private void release(PressState press, boolean isHasClick) {
+            View view = press.view;
+            press.isRelease = true;
+            unobserveScroll(press);
+            removeAutoRelease(press);
+            if (getScaleMode() == SCALE_MODE_SPRING) {
+                float dampingRatio = isHasClick ? getClickDampingRatio() : SpringForce.DAMPING_RATIO_NO_BOUNCY;
+                float velocity = 0;
+                if (isHasClick) {
+                    // kick the spring further by about the release scale before it bounces back
+                    float sign = getScaleType() == TYPE_GROW ? 1 : -1;
+                    velocity = sign * getKickVelocity(getReleaseScale(), getSpringStiffness(), dampingRatio);
+                }
+                animateSpringScale(press, getRealScale(), dampingRatio, velocity);
+                beginFrameStats(press);
+                return;
+            }
+            float delta = (getPressScale() + (isHasClick ? getReleaseScale() : 0)) * (getScaleType() == TYPE_GROW ? 1 : -1);
+            float to = getRealScale();
+            float from = to + delta;
+            if (from < 0) {
+                from = 0;
+            }
+            ScaleAnimation scaleAnimation = new ScaleAnimation(from, to, from, to, PIVOT_TYPE, PIVOT_VAL, PIVOT_TYPE, PIVOT_VAL);
+            scaleAnimation.setDuration(getDuration());
+            if (isHasClick) {
+                scaleAnimation.setInterpolator(getScaleType() == TYPE_GROW
+                        ? new OvershootInterpolator()
+                        : new AnticipateOvershootInterpolator());
+            }
+            startScaleAnimation(press, scaleAnimation);
+            if (press.isLifted && !press.isScaling()) {
+                // nothing to follow until the end of the animation
+                recyclePressState(press);
+            }
+        }
+
+        @Nullable
+        private PressState getPressState(@Nullable View view) {
+            return view != null ? pressStates.get(view) : null;
+        }
+
+        /**
+         * The entry of the view, a press during the release continues it
+         */
+        private PressState obtainPressState(View view) {
+            PressState press = pressStates.get(view);
+            if (press != null) {
+                return press;
+            }
+            int size = pressPool.size();
+            press = size > 0 ? pressPool.remove(size - 1) : new PressState();
+            press.view = view;
+            view.addOnLayoutChangeListener(press.boundsLayoutListener);
+            view.addOnAttachStateChangeListener(press.detachListener);
+            if (getScaleMode() == SCALE_MODE_SPRING) {
+                // legacy animation may still be applied with fill after
+                view.clearAnimation();
+            }
+            pressStates.put(view, press);
+            return press;
+        }
+
+        /**
+         * End the press and pool its state, a running measure is dropped
+         */
+        private void recyclePressState(PressState press) {
+            View view = press.view;
+            pressStates.remove(view);
+            // the end callbacks of the cancels below find no view
+            press.view = null;
+            view.removeOnLayoutChangeListener(press.boundsLayoutListener);
+            view.removeOnAttachStateChangeListener(press.detachListener);
+            unobserveScroll(press);
+            removeAutoRelease(press);
+            if (press.springScaleX != null) {
+                // the velocity is not carried over to the next view
+                press.springScaleX.cancel();
+                press.springScaleY.cancel();
+                press.springScaleX.setStartVelocity(0);
+                press.springScaleY.setStartVelocity(0);
+            }
+            if (press.scaleScheduler != null) {
+                press.scaleScheduler.release(press.channelScaleX);
+                press.scaleScheduler.release(press.channelScaleY);
+                press.channelScaleX = press.channelScaleY = -1;
+                press.scaleScheduler = null;
+            }
+            press.currentAnimation = null;
+            if (press.frameMonitor != null) {
+                press.frameMonitor.stop();
+            }
+            restoreLayer(press, view);
+            if (press.downEvent != null) {
+                press.downEvent.recycle();
+                press.downEvent = null;
+            }
+            press.isBoundsValid = false;
+            pressPool.add(press);
+        }
+
+        /**
+         * A detached view may never get its up nor the end of its animation,
+         * it is left at rest for its next attach
+         */
+        private void onPressDetached(PressState press) {
+            View view = press.view;
+            recyclePressState(press);
+            if (getScaleMode() == SCALE_MODE_SPRING) {
+                view.setScaleX(getRealScale());
+                view.setScaleY(getRealScale());
+            } else {
+                view.clearAnimation();
+            }
+        }
+
+        /**
+         * Number of views with a press in progress
+         */
+        int getPressStateCount() {
+            return pressStates.size();
+        }
+
+        private void startScaleAnimation(PressState press, ScaleAnimation scaleAnimation) {
+            if (isMonitorFrames() || isUseHardwareLayer()) {
+                press.currentAnimation = scaleAnimation;
+                scaleAnimation.setAnimationListener(press.scaleAnimationListener);
+            }
+            press.view.startAnimation(scaleAnimation);
+            beginFrameStats(press);
+        }
+
+        /**
+         * Retarget the scale springs from their current value and velocity,
+         * off the main thread they run on the {@link SpringScheduler} of the thread
+         */
+        private void animateSpringScale(PressState press, float to, float dampingRatio, float velocity) {
+            if (!isMainThread()) {
+                // SpringAnimation only runs on the main thread
+                if (press.scaleScheduler == null) {
+                    press.scaleScheduler = SpringScheduler.getInstance();
+                    press.channelScaleX = createChannelScale(press, PRESS_SCALE_X);
+                    press.channelScaleY = createChannelScale(press, PRESS_SCALE_Y);
+                }
+            } else if (press.springScaleX == null) {
+                press.springScaleX = createSpringScale(press, PRESS_SCALE_X);
+                press.springScaleY = createSpringScale(press, PRESS_SCALE_Y);
+            }
+            float stiffness = getSpringStiffness();
+            SpringScheduler scaleScheduler = press.scaleScheduler;
+            if (scaleScheduler != null) {
+                scaleScheduler.setSpring(press.channelScaleX, stiffness, dampingRatio);
+                scaleScheduler.setSpring(press.channelScaleY, stiffness, dampingRatio);
+                if (velocity != 0) {
+                    scaleScheduler.setStartVelocity(press.channelScaleX, velocity);
+                    scaleScheduler.setStartVelocity(press.channelScaleY, velocity);
+                }
+                scaleScheduler.animateToFinalPosition(press.channelScaleX, to);
+                scaleScheduler.animateToFinalPosition(press.channelScaleY, to);
+                return;
+            }
+            press.springScaleX.getSpring().setStiffness(stiffness).setDampingRatio(dampingRatio);
+            press.springScaleY.getSpring().setStiffness(stiffness).setDampingRatio(dampingRatio);
+            if (velocity != 0) {
+                press.springScaleX.setStartVelocity(velocity);
+                press.springScaleY.setStartVelocity(velocity);
+            }
+            press.springScaleX.animateToFinalPosition(to);
+            press.springScaleY.animateToFinalPosition(to);
+        }
+
+        private void onScaleEnd(PressState press) {
+            if (press.view == null) {
+                // canceled by the recycle
+                return;
+            }
+            endFrameStats(press);
+            if (press.isRelease) {
+                // the press animation ends while pressed, keep the layer for the release
+                restoreLayer(press, press.view);
+                if (press.isLifted) {
+                    recyclePressState(press);
+                }
+            }
+        }
+
+        /**
+         * Measure of the press when {@link #isMonitorFrames()}, each pressed view has its own
+         */
+        private void beginFrameStats(PressState press) {
+            if (!isMonitorFrames()) {
+                return;
+            }
+            endFrameStats(press);
+            if (press.frameMonitor == null) {
+                press.frameMonitor = new FrameMonitor();
+            }
+            press.frameMonitor.start(press.view, press.touch.isPointerDown());
+        }
+
+        private void endFrameStats(PressState press) {
+            FrameStats stats = press.frameMonitor != null ? press.frameMonitor.stop() : null;
+            if (stats != null) {
+                onFrameStats(press.view, stats);
+            }
+        }
+
+        /**
+         * Layer of the press when {@link #isUseHardwareLayer()}, each pressed view keeps its own
+         */
+        private void promoteLayer(PressState press) {
+            if (!isUseHardwareLayer() || press.isLayerPromoted) {
+                return;
+            }
+            press.savedLayerType = press.view.getLayerType();
+            if (press.savedLayerType != View.LAYER_TYPE_HARDWARE) {
+                press.view.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+            }
+            press.isLayerPromoted = true;
+        }
+
+        private void restoreLayer(PressState press, View view) {
+            if (!press.isLayerPromoted) {
+                return;
+            }
+            if (press.savedLayerType != View.LAYER_TYPE_HARDWARE) {
+                view.setLayerType(press.savedLayerType, null);
+            }
+            press.isLayerPromoted = false;
+        }
+
+        private void updateBounds(PressState press) {
+            View view = press.view;
+            view.getLocationOnScreen(location);
+            press.releaseLeft = location[0] - getOffsetReleaseX();
+            press.releaseTop = location[1] - getOffsetReleaseY();
+            press.releaseRight = location[0] + view.getWidth() + getOffsetReleaseX();
+            press.releaseBottom = location[1] + view.getHeight() + getOffsetReleaseY();
+            press.isBoundsValid = true;
+        }
+
+        /**
+         * The observer is kept, the one of the view changes on a re-attach
+         */
+        private void observeScroll(PressState press) {
+            unobserveScroll(press);
+            press.boundsObserver = press.view.getViewTreeObserver();
+            press.boundsObserver.addOnScrollChangedListener(press.boundsScrollListener);
+        }
+
+        private void unobserveScroll(PressState press) {
+            if (press.boundsObserver == null) {
+                return;
+            }
+            if (press.boundsObserver.isAlive()) {
+                press.boundsObserver.removeOnScrollChangedListener(press.boundsScrollListener);
+            }
+            press.boundsObserver = null;
+        }
+
+        private SpringAnimation createSpringScale(PressState press, FloatPropertyCompat<PressState> property) {
+            SpringAnimation spring = new SpringAnimation(press, property);
+            spring.setSpring(new SpringForce());
+            spring.setMinimumVisibleChange(DynamicAnimation.MIN_VISIBLE_CHANGE_SCALE);
+            spring.addEndListener(press.springScaleEndListener);
+            return spring;
+        }
+
+        private int createChannelScale(PressState press, FloatPropertyCompat<PressState> property) {
+            int channel = press.scaleScheduler.acquire(press, property, press.channelScaleEndListener);
+            press.scaleScheduler.setMinimumVisibleChange(channel, DynamicAnimation.MIN_VISIBLE_CHANGE_SCALE);
+            return channel;
+        }
+
+        /**
+         * Start velocity of a spring at rest which moves it by the peak before it turns back
+         * <br/>x(t) peaks at (v0 / w) * e^(-dampingRatio * theta / sqrt(1 - dampingRatio^2)), theta = acos(dampingRatio)
+         */
+        static float getKickVelocity(float peak, float stiffness, float dampingRatio) {
+            double naturalFreq = Math.sqrt(stiffness);
+            double decay;
+            if (dampingRatio < 1) {
+                double root = Math.sqrt(1 - dampingRatio * dampingRatio);
+                decay = dampingRatio * Math.acos(dampingRatio) / root;
+            } else if (dampingRatio > 1) {
+                double root = Math.sqrt(dampingRatio * dampingRatio - 1);
+                decay = dampingRatio * Math.log(dampingRatio + root) / root;
+            } else {
+                decay = 1;
+            }
+            return (float) (peak * naturalFreq * Math.exp(decay));
+        }
+
+        /**
+         * A press clicks once, the auto release and the up do not both click
+         */
+        private boolean acquireClick(PressState press) {
+            if (press.isClickAcquired) {
+                return false;
+            }
+            press.isClickAcquired = acquireClick();
+            return press.isClickAcquired;
+        }
+
+        protected final void removeAutoRelease(@Nullable View view) {
+            PressState press = getPressState(view);
+            if (press != null) {
+                removeAutoRelease(press);
+            }
+        }
+
+        private void removeAutoRelease(PressState press) {
+            if (press.isAutoReleasePending) {
+                press.autoReleaseHandler.removeCallbacks(press.autoReleaseRunnable);
+                press.isAutoReleasePending = false;
+            }
+        }
+
+        /**
+         * Held past the delay: a long click, the finger is still down
+         * and the press ends with its real up or cancel
+         */
+        private void autoRelease(PressState press) {
+            press.isAutoReleasePending = false;
+            View view = press.view;
+            view.setPressed(false);
+            boolean isHasClick = press.touch.getState() == STATE_DOWN;
+            if (isHasClick && acquireClick(press)) {
+                performLongClick(view, press.downEvent);
+            }
+            release(press, isHasClick);
+        }
+
+        @ScaleType
+        protected int getScaleType() {
+            return TYPE_SHRINK;
+        }
+
+        protected float getRealScale() {
+            return DEFAULT_REAL_SCALE;
+        }
+
+        /**
+         * Press scale delta
+         */
+        protected float getPressScale() {
+            return DEFAULT_PRESS_SCALE;
+        }
+
+        /**
+         * Release scale delta
+         */
+        protected float getReleaseScale() {
+            return DEFAULT_RELEASE_SCALE;
+        }
+
+        protected int getDuration() {
+            return DEFAULT_DURATION;
+        }
+
+        /**
+         * {@link #SCALE_MODE_ANIMATION}: legacy {@link ScaleAnimation}, restarted from a fixed value
+         * <br/>{@link #SCALE_MODE_SPRING}: springs on scaleX / scaleY reused for every press,
+         * an interrupted animation continues from its current value and velocity
+         */
+        @ScaleMode
+        protected int getScaleMode() {
+            return SCALE_MODE_ANIMATION;
+        }
+
+        /**
+         * Only used by {@link #SCALE_MODE_SPRING}, default settles the press in about {@link #getDuration()}
+         */
+        protected float getSpringStiffness() {
+            if (stiffnessDuration != getDuration() || stiffnessPressScale != getPressScale()) {
+                stiffnessDuration = getDuration();
+                stiffnessPressScale = getPressScale();
+                stiffness = getSettleStiffness(stiffnessPressScale, 0,
+                        SpringForce.DAMPING_RATIO_NO_BOUNCY, SCALE_THRESHOLD, stiffnessDuration);
+            }
+            return stiffness;
+        }
+
+        /**
+         * Only used by {@link #SCALE_MODE_SPRING}, the bounce of the release after a click
+         */
+        protected float getClickDampingRatio() {
+            return DEFAULT_CLICK_DAMPING_RATIO;
+        }
+
+        protected int getMinTapTime() {
+            return MIN_TAP_TIME;
+        }
+
+        protected int getOffsetReleaseX() {
+            return DEFAULT_OFFSET_RELEASE;
+        }
+
+        protected int getOffsetReleaseY() {
+            return DEFAULT_OFFSET_RELEASE;
+        }
+
+        protected int getAllowAutoRelease() {
+            return DEFAULT_ALLOW_AUTO_RELEASE;
+        }
+
+        protected int getAutoReleaseDelay() {
+            return DEFAULT_AUTO_RELEASE_DELAY;
+        }
+
+    }
+
+    /**
+     * Drag, pinch to scale and rotate with any number of pointers,
+     * the first two pointers down drive the transform.
+     * <br/>The view is animated with springs on translation, scale and rotation around its pivot,
+     * on the {@link SpringScheduler} of the thread when it is not the main one.
+     */
+    public static class TransformTouchListener extends BaseTouchListener {
+
+        private static final float DEFAULT_MIN_SCALE = 0.5f;
+        private static final float DEFAULT_MAX_SCALE = 3f;
+        private static final float DEFAULT_STIFFNESS = SpringForce.STIFFNESS_HIGH;
+        private static final float DEFAULT_DAMPING_RATIO = SpringForce.DAMPING_RATIO_NO_BOUNCY;
+        private static final int AXIS_TRANSLATION_X = 0;
+        private static final int AXIS_TRANSLATION_Y = 1;
+        private static final int AXIS_SCALE_X = 2;
+        private static final int AXIS_SCALE_Y = 3;
+        private static final int AXIS_ROTATION = 4;
+        private static final int AXIS_COUNT = 5;
+
+        private boolean isInit;
+        // one spring per axis: an animation on the main thread, else a channel of the scheduler
+        private final SpringAnimation[] springs = new SpringAnimation[AXIS_COUNT];
+        private SpringScheduler scheduler;
+        private final int[] channels = new int[AXIS_COUNT];
+        private final View.OnAttachStateChangeListener detachListener = new View.OnAttachStateChangeListener() {
+            @Override
+            public void onViewAttachedToWindow(@NonNull View v) {
+            }
+
+            @Override
+            public void onViewDetachedFromWindow(@NonNull View v) {
+                // give back the channels, the listener will init again on the next touch
+                releaseChannels();
+            }
+        };
+        private final float[] point = new float[2];
+        private int pointerId0 = MotionEvent.INVALID_POINTER_ID;
+        private int pointerId1 = MotionEvent.INVALID_POINTER_ID;
+        private boolean isMultiTouch;
+        private float x0, y0, x1, y1;
+        private float startCenterX, startCenterY, startSpan, lastAngle;
+        // start center from the pivot, without the base translation
+        private float anchorX, anchorY;
+        private float baseTranslationX, baseTranslationY, baseScale, baseRotation;
+        private float translationX, translationY, scale, rotation;
+
+        @Override
+        public void init(View v) {
+            releaseChannels();
+            isInit = true;
+            if (isUseSharedScheduler() || !isMainThread()) {
+                // SpringAnimation only runs on the main thread
+                scheduler = SpringScheduler.getInstance();
+                createChannel(v, AXIS_TRANSLATION_X, DynamicAnimation.TRANSLATION_X, DynamicAnimation.MIN_VISIBLE_CHANGE_PIXELS);
+                createChannel(v, AXIS_TRANSLATION_Y, DynamicAnimation.TRANSLATION_Y, DynamicAnimation.MIN_VISIBLE_CHANGE_PIXELS);
+                createChannel(v, AXIS_SCALE_X, DynamicAnimation.SCALE_X, DynamicAnimation.MIN_VISIBLE_CHANGE_SCALE);
+                createChannel(v, AXIS_SCALE_Y, DynamicAnimation.SCALE_Y, DynamicAnimation.MIN_VISIBLE_CHANGE_SCALE);
+                createChannel(v, AXIS_ROTATION, DynamicAnimation.ROTATION, DynamicAnimation.MIN_VISIBLE_CHANGE_ROTATION_DEGREES);
+                v.removeOnAttachStateChangeListener(detachListener);
+                v.addOnAttachStateChangeListener(detachListener);
+                return;
+            }
+            springs[AXIS_TRANSLATION_X] = createSpring(v, DynamicAnimation.TRANSLATION_X);
+            springs[AXIS_TRANSLATION_Y] = createSpring(v, DynamicAnimation.TRANSLATION_Y);
+            springs[AXIS_SCALE_X] = createSpring(v, DynamicAnimation.SCALE_X);
+            springs[AXIS_SCALE_Y] = createSpring(v, DynamicAnimation.SCALE_Y);
+            springs[AXIS_ROTATION] = createSpring(v, DynamicAnimation.ROTATION);
+        }
+
+        @Override
+        protected void onPrewarm(@NonNull View view) {
+            if (!isInit) {
+                traceBegin(SECTION_INIT);
+                init(view);
+                traceEnd();
+            }
+        }
+
+        @Override
+        protected void onActionTouch(@NonNull View view, @NonNull MotionEvent event) {
+            if (!isInit) {
+                prewarmInTouch(view);
+            }
+        }
+
+        @Override
+        protected boolean onActionDown(@NonNull View view, @NonNull MotionEvent event) {
+            pointerId0 = event.getPointerId(0);
+            pointerId1 = MotionEvent.INVALID_POINTER_ID;
+            isMultiTouch = false;
+            translationX = view.getTranslationX();
+            translationY = view.getTranslationY();
+            scale = view.getScaleX();
+            rotation = view.getRotation();
+            rebase(view, event);
+            return true;
+        }
+
+        @Override
+        protected boolean onActionPointerDown(@NonNull View view, @NonNull MotionEvent event) {
+            if (pointerId1 == MotionEvent.INVALID_POINTER_ID) {
+                pointerId1 = event.getPointerId(event.getActionIndex());
+                isMultiTouch = true;
+                rebase(view, event);
+            }
+            return true;
+        }
+
+        @Override
+        protected boolean onActionPointerUp(@NonNull View view, @NonNull MotionEvent event) {
+            int upId = event.getPointerId(event.getActionIndex());
+            if (upId != pointerId0 && upId != pointerId1) {
+                return true;
+            }
+            if (upId == pointerId0) {
+                pointerId0 = pointerId1;
+            }
+            pointerId1 = findOtherPointer(event, pointerId0, upId);
+            if (pointerId0 == MotionEvent.INVALID_POINTER_ID) {
+                pointerId0 = pointerId1;
+                pointerId1 = MotionEvent.INVALID_POINTER_ID;
+            }
+            rebase(view, event);
+            return true;
+        }
+
+        @Override
+        protected boolean onActionMove(@NonNull View view, @NonNull MotionEvent event) {
+            if (!readPointers(view, event)) {
+                return true;
+            }
+            if (pointerId1 != MotionEvent.INVALID_POINTER_ID) {
+                if (isCanScale() && startSpan > 0) {
+                    scale = coerceIn(baseScale * getSpan() / startSpan, getMinScale(), getMaxScale());
+                    animateAxis(AXIS_SCALE_X, scale);
+                    animateAxis(AXIS_SCALE_Y, scale);
+                }
+                float angle = getAngle();
+                if (isCanRotate()) {
+                    // sum the steps, only a step is wrapped: a twist can go past 180 degrees
+                    float step = angle - lastAngle;
+                    if (step > 180) step -= 360;
+                    if (step < -180) step += 360;
+                    rotation += step;
+                    animateAxis(AXIS_ROTATION, rotation);
+                }
+                lastAngle = angle;
+            }
+            if (isCanTranslate()) {
+                // scale and rotation pivot on the view, keep the start center under the fingers
+                float factor = baseScale != 0 ? scale / baseScale : 1;
+                double radians = Math.toRadians(rotation - baseRotation);
+                float cos = (float) Math.cos(radians) * factor;
+                float sin = (float) Math.sin(radians) * factor;
+                translationX = getCenterX() - view.getLeft() - view.getPivotX() - (cos * anchorX - sin * anchorY);
+                translationY = getCenterY() - view.getTop() - view.getPivotY() - (sin * anchorX + cos * anchorY);
+                animateAxis(AXIS_TRANSLATION_X, translationX);
+                animateAxis(AXIS_TRANSLATION_Y, translationY);
+            }
+            onTransform(view, translationX, translationY, scale, rotation);
+            return true;
+        }
+
+        @Override
+        protected boolean onActionStop(@NonNull View view, @NonNull MotionEvent event) {
+            if (event.getActionMasked() == MotionEvent.ACTION_UP && !isTouching() && !isMultiTouch && acquireClick()) {
+                performClick(view, event);
+            }
+            pointerId0 = pointerId1 = MotionEvent.INVALID_POINTER_ID;
+            onTransformEnd(view, translationX, translationY, scale, rotation);
+            return true;
+        }
+
+        protected final void clearAnimation() {
+            if (!isInit) {
+                return;
+            }
+            for (int axis = 0; axis < AXIS_COUNT; axis++) {
+                if (scheduler != null) {
+                    scheduler.cancel(channels[axis]);
+                } else {
+                    springs[axis].cancel();
+                }
+            }
+        }
+
+        private SpringAnimation createSpring(View view, FloatPropertyCompat<View> property) {
+            SpringAnimation spring = new SpringAnimation(view, property, 0);
+            spring.getSpring().setStiffness(getStiffness()).setDampingRatio(getDampingRatio());
+            return spring;
+        }
+
+        private void createChannel(View view, int axis, FloatPropertyCompat<View> property, float minimumVisibleChange) {
+            int channel = scheduler.acquire(view, property, null);
+            scheduler.setSpring(channel, getStiffness(), getDampingRatio());
+            scheduler.setMinimumVisibleChange(channel, minimumVisibleChange);
+            channels[axis] = channel;
+        }
+
+        private void animateAxis(int axis, float finalPosition) {
+            if (scheduler != null) {
+                scheduler.animateToFinalPosition(channels[axis], finalPosition);
+            } else {
+                springs[axis].animateToFinalPosition(finalPosition);
+            }
+        }
+
+        private void releaseChannels() {
+            if (scheduler == null) {
+                return;
+            }
+            for (int axis = 0; axis < AXIS_COUNT; axis++) {
+                scheduler.release(channels[axis]);
+                channels[axis] = -1;
+            }
+            scheduler = null;
+            isInit = false;
+        }
+
+        /**
+         * Start a new transform from the current pointers, keep the current targets as base
+         */
+        private void rebase(View view, MotionEvent event) {
+            baseTranslationX = translationX;
+            baseTranslationY = translationY;
+            baseScale = scale;
+            baseRotation = rotation;
+            if (!readPointers(view, event)) {
+                return;
+            }
+            startCenterX = getCenterX();
+            startCenterY = getCenterY();
+            startSpan = getSpan();
+            lastAngle = getAngle();
+            anchorX = startCenterX - view.getLeft() - view.getPivotX() - baseTranslationX;
+            anchorY = startCenterY - view.getTop() - view.getPivotY() - baseTranslationY;
+        }
+
+        /**
+         * Read the tracked pointers in the parent coordinates, they don't depend on the transform of the view
+         */
+        private boolean readPointers(View view, MotionEvent event) {
+            int index0 = event.findPointerIndex(pointerId0);
+            if (index0 < 0) {
+                return false;
+            }
+            mapToParent(view, event.getX(index0), event.getY(index0));
+            x0 = point[0];
+            y0 = point[1];
+            int index1 = pointerId1 == MotionEvent.INVALID_POINTER_ID ? -1 : event.findPointerIndex(pointerId1);
+            if (index1 < 0) {
+                pointerId1 = MotionEvent.INVALID_POINTER_ID;
+                x1 = x0;
+                y1 = y0;
+                return true;
+            }
+            mapToParent(view, event.getX(index1), event.getY(index1));
+            x1 = point[0];
+            y1 = point[1];
+            return true;
+        }
+
+        private void mapToParent(View view, float x, float y) {
+            point[0] = x;
+            point[1] = y;
+            view.getMatrix().mapPoints(point);
+            point[0] += view.getLeft();
+            point[1] += view.getTop();
+        }
+
+        private float getCenterX() {
+            return (x0 + x1) / 2;
+        }
+
+        private float getCenterY() {
+            return (y0 + y1) / 2;
+        }
+
+        private float getSpan() {
+            return (float) Math.hypot(x1 - x0, y1 - y0);
+        }
+
+        private float getAngle() {
+            return (float) Math.toDegrees(Math.atan2(y1 - y0, x1 - x0));
+        }
+
+        private static int findOtherPointer(MotionEvent event, int excludeId0, int excludeId1) {
+            for (int i = 0; i < event.getPointerCount(); i++) {
+                int id = event.getPointerId(i);
+                if (id != excludeId0 && id != excludeId1) {
+                    return id;
+                }
+            }
+            return MotionEvent.INVALID_POINTER_ID;
+        }
+
+        /* ----------------- CAN OVERRIDE TO RECEIVE OR MODIFY ---------------------------------- */
+
+        /**
+         * Called on each move with the target values of the springs
+         */
+        protected void onTransform(@NonNull View view, float translationX, float translationY, float scale, float rotation) {
+        }
+
+        protected void onTransformEnd(@NonNull View view, float translationX, float translationY, float scale, float rotation) {
+        }
+
+        protected boolean isCanTranslate() {
+            return true;
+        }
+
+        protected boolean isCanScale() {
+            return true;
+        }
+
+        protected boolean isCanRotate() {
+            return true;
+        }
+
+        @Override
+        protected boolean isClaimOnTouching() {
+            return true;
+        }
+
+        protected float getMinScale() {
+            return DEFAULT_MIN_SCALE;
+        }
+
+        protected float getMaxScale() {
+            return DEFAULT_MAX_SCALE;
+        }
+
+        protected float getStiffness() {
+            return DEFAULT_STIFFNESS;
+        }
+
+        protected float getDampingRatio() {
+            return DEFAULT_DAMPING_RATIO;
+        }
+
+        /**
+         * Animate on the {@link SpringScheduler} of the thread even on the main thread
+         */
+        protected boolean isUseSharedScheduler() {
+            return false;
+        }
+
+    }
 
-                    int predictX = predictWallVer == LEFT ? moveArea.left : moveArea.right;
-                    int predictY = predictWallHoz == TOP ? moveArea.top : moveArea.bottom;
-                    float distanceToVer = Math.abs(centerView.x - predictX);
-                    float distanceToHoz = Math.abs(centerView.y - predictY);
+    /**
+     * Run several listeners (stages) in one dispatch, e.g. a press feedback, a drag and a fling-snap.
+     * <br/>Each stage receives the events in order, on its target view (the view of this listener
+     * by default). The location is moved to the target by its offset in the hierarchy, without
+     * the transformations, then restored for the next stage.
+     * <br/>A stage claims the gesture with {@link #claim(BaseTouchListener)}, or once it passed
+     * the touch slop when {@link BaseTouchListener#isClaimOnTouching()}, then the other stages
+     * receive a cancel and no more events until the next down.
+     * <br/>Only one click of a gesture is performed: the stages which decide the gesture
+     * ({@link BaseTouchListener#isClaimOnTouching()}, e.g. a fling with its click rule) have
+     * the priority, a press feedback stage only clicks when there is no such stage.
+     */
+    public static class CompositeTouchListener extends BaseTouchListener {
 
-                    return distanceToVer / moveArea.width() > distanceToHoz / moveArea.height() ?
-                            predictWallHoz :
-                            predictWallVer;
-            }
+        private final List<Stage> stages = new ArrayList<>();
+        @Nullable
+        private BaseTouchListener owner;
+        private boolean isClicked;
+        private boolean result;
+
+        @NonNull
+        public final CompositeTouchListener addStage(@NonNull BaseTouchListener stage) {
+            return addStage(stage, null);
         }
 
-        protected void moveToWall(View view, Point predictPosition) {
-            Rect moveArea = getMoveArea();
-            Point wallPoint = new Point();
-            int wall = getWall(view, predictPosition);
-            switch (wall) {
-                case LEFT:
-                case RIGHT:
-                    wallPoint.x = wall == LEFT ? moveArea.left : moveArea.right;
-                    wallPoint.y = predictPosition == null ? (int) getPropY().getValue(view) : predictPosition.y;
-                    break;
-                case TOP:
-                case BOT:
-                    wallPoint.x = predictPosition == null ? (int) getPropX().getValue(view) : predictPosition.x;
-                    wallPoint.y = wall == TOP ? moveArea.top : moveArea.bottom;
-                    break;
+        @NonNull
+        public final CompositeTouchListener addStage(@NonNull BaseTouchListener stage, @Nullable View target) {
+            if (stage.composite != null) {
+                throw new IllegalStateException("The stage is already in a composite listener");
             }
-
-            OnAnimationEndListener endListener = new OnAnimationEndListener() {
-                @Override
-                public void onAnimationEnd(DynamicAnimation animation, boolean canceled, float value, float velocity) {
-                    if (!canceled && !getSpringX().isRunning() && !getSpringY().isRunning()) {
-                        onMovedToWall(view, wall, wallPoint);
+            stage.composite = this;
+            stages.add(new Stage(stage, target));
+            return this;
+        }
+
+        public final void removeStage(@NonNull BaseTouchListener stage) {
+            for (int i = 0; i < stages.size(); i++) {
+                if (stages.get(i).listener == stage) {
+                    stages.remove(i);
+                    stage.composite = null;
+                    if (owner == stage) {
+                        owner = null;
                     }
-                    if (!getSpringX().isRunning()) getSpringX().removeEndListener(this);
-                    if (!getSpringY().isRunning()) getSpringY().removeEndListener(this);
+                    return;
                 }
-            };
-            getSpringX().addEndListener(endListener).animateToFinalPosition(wallPoint.x);
-            getSpringY().addEndListener(endListener).animateToFinalPosition(wallPoint.y);
-            onStartMoveToWall(view, wall, wallPoint);
+            }
         }
 
-        @NonNull
-        protected MoveMode getMoveMode() {
-            return MoveMode.Vertical;
+        /**
+         * The other stages are canceled with the current event, or with the next one
+         * when called outside a dispatch
+         */
+        public final void claim(@NonNull BaseTouchListener stage) {
+            if (owner == null && stage.composite == this) {
+                owner = stage;
+            }
         }
 
-        protected void onStartMoveToWall(@NonNull View view, @Wall int wall, Point wallPoint) {
+        @Nullable
+        public final BaseTouchListener getOwner() {
+            return owner;
         }
 
-        protected void onMovedToWall(@NonNull View view, @Wall int wall, Point wallPoint) {
+        @Override
+        public void init(View v) {
+            for (int i = 0; i < stages.size(); i++) {
+                Stage stage = stages.get(i);
+                stage.listener.init(stage.target != null ? stage.target : v);
+            }
         }
 
-    }
-
-    public static class TouchScaleListener extends BaseTouchListener {
-
-        private static final int PIVOT_TYPE = ScaleAnimation.RELATIVE_TO_SELF;
-        private static final float PIVOT_VAL = 0.5f;
-        private static final float DEFAULT_REAL_SCALE = 1f;
-        private static final float DEFAULT_PRESS_SCALE = 0.25f;
-        private static final float DEFAULT_RELEASE_SCALE = 0.2f;
-        private static final int DEFAULT_DURATION = 250;
-        private static final int MIN_TAP_TIME = 200;
-        private static final int DEFAULT_OFFSET_RELEASE = 0;
-        private static final int DEFAULT_ALLOW_AUTO_RELEASE = 1;
-        private static final int DEFAULT_AUTO_RELEASE_DELAY = ViewConfiguration.getLongPressTimeout();
-
-        private final int[] location = new int[2];
-        private boolean isRelease;
-        private Runnable autoReleaseRunnable;
+        @Override
+        protected void onPrewarm(@NonNull View view) {
+            for (int i = 0; i < stages.size(); i++) {
+                Stage stage = stages.get(i);
+                stage.listener.prewarm(stage.target != null ? stage.target : view);
+            }
+        }
 
         @Override
-        public void init(View v) {
+        protected void onActionTouch(@NonNull View view, @NonNull MotionEvent event) {
+            int action = event.getActionMasked();
+            if (action == MotionEvent.ACTION_DOWN) {
+                owner = null;
+                isClicked = false;
+                for (int i = 0; i < stages.size(); i++) {
+                    stages.get(i).isActive = true;
+                }
+            }
+            result = false;
+            cancelOthers(view, event);
+            for (int i = 0; i < stages.size(); i++) {
+                Stage stage = stages.get(i);
+                if (!stage.isActive) {
+                    continue;
+                }
+                result |= dispatch(view, stage, event);
+                if (owner == null && action == MotionEvent.ACTION_MOVE && stage.listener.isClaimOnTouching()
+                        && stage.listener.isTouching()) {
+                    owner = stage.listener;
+                }
+                cancelOthers(view, event);
+            }
         }
 
         @Override
-        protected final void onActionTouch(@NonNull View view, @NonNull MotionEvent event) {
-            super.onActionTouch(view, event);
+        protected boolean onActionDown(@NonNull View view, @NonNull MotionEvent event) {
+            return result;
         }
 
         @Override
-        protected final boolean onActionDown(@NonNull View view, @NonNull MotionEvent event) {
-            isRelease = false;
-            float from = getRealScale();
-            float to = from + (getScaleType() == TYPE_GROW ? getPressScale() : -getPressScale());
-            ScaleAnimation scaleAnimation = new ScaleAnimation(from, to, from, to, PIVOT_TYPE, PIVOT_VAL, PIVOT_TYPE, PIVOT_VAL);
-            scaleAnimation.setDuration(getDuration());
-            scaleAnimation.setFillAfter(true);
-            view.startAnimation(scaleAnimation);
+        protected boolean onActionMove(@NonNull View view, @NonNull MotionEvent event) {
+            return result;
+        }
 
-            // auto release touch
-            removeAutoRelease(view);
-            if (getAllowAutoRelease() != 0) {
-                view.postDelayed(autoReleaseRunnable = () -> {
-                    MotionEvent e = MotionEvent.obtain(-1, 0, MotionEvent.ACTION_UP, 0, 0, 0);
-                    onTouch(view, e);
-                    e.recycle();
-                }, getAutoReleaseDelay());
-            }
-            return true;
+        @Override
+        protected boolean onActionStop(@NonNull View view, @NonNull MotionEvent event) {
+            return result;
         }
 
         @Override
-        protected final boolean onActionMove(@NonNull View view, @NonNull MotionEvent event) {
-            if (isRelease) {
-                return true;
-            }
-            float x = event.getRawX();
-            float y = event.getRawY();
-            Point position = getLocationOnScreen(view, location);
-            if (x < position.x - getOffsetReleaseX() ||
-                    x > position.x + view.getWidth() + getOffsetReleaseX() ||
-                    y < position.y - getOffsetReleaseY() ||
-                    y > position.y + view.getHeight() + getOffsetReleaseY()) {
-                release(view, false);
-            }
-            return true;
+        protected boolean onActionPointerDown(@NonNull View view, @NonNull MotionEvent event) {
+            return result;
         }
 
         @Override
-        protected final boolean onActionStop(@NonNull View view, @NonNull MotionEvent event) {
-            if (isRelease) {
-                return true;
+        protected boolean onActionPointerUp(@NonNull View view, @NonNull MotionEvent event) {
+            return result;
+        }
+
+        private boolean consumeClick(BaseTouchListener listener) {
+            if (isClicked || (owner != null && owner != listener)) {
+                return false;
             }
-            boolean isHasClick = false;
-            if (event.getAction() == MotionEvent.ACTION_UP) {
-                if (getState() == STATE_DOWN) {
-                    isHasClick = true;
-                    long eventTime = event.getEventTime() - event.getDownTime();
-                    if (eventTime <= getMinTapTime() && event.getDownTime() != -1) {
-                        performClick(view, event);
-                    } else {
-                        performLongClick(view, event);
+            if (!listener.isClaimOnTouching()) {
+                for (int i = 0; i < stages.size(); i++) {
+                    Stage stage = stages.get(i);
+                    if (stage.isActive && stage.listener.isClaimOnTouching()) {
+                        // the stage deciding the gesture decides the click
+                        return false;
                     }
                 }
             }
-            release(view, isHasClick);
+            isClicked = true;
             return true;
         }
 
-        protected final void release(View view, boolean isHasClick) {
-            isRelease = true;
-            float delta = (getPressScale() + (isHasClick ? getReleaseScale() : 0)) * (getScaleType() == TYPE_GROW ? 1 : -1);
-            float to = getRealScale();
-            float from = to + delta;
-            if (from < 0) {
-                from = 0;
+        private void cancelOthers(View view, MotionEvent event) {
+            if (owner == null) {
+                return;
             }
-            ScaleAnimation scaleAnimation = new ScaleAnimation(from, to, from, to, PIVOT_TYPE, PIVOT_VAL, PIVOT_TYPE, PIVOT_VAL);
-            scaleAnimation.setDuration(getDuration());
-            if (isHasClick) {
-                scaleAnimation.setInterpolator(getScaleType() == TYPE_GROW
-                        ? new OvershootInterpolator()
-                        : new AnticipateOvershootInterpolator());
+            // the current event is sent as the cancel, no event is obtained per stage
+            int action = event.getAction();
+            for (int i = 0; i < stages.size(); i++) {
+                Stage stage = stages.get(i);
+                if (!stage.isActive || stage.listener == owner) {
+                    continue;
+                }
+                stage.isActive = false;
+                event.setAction(MotionEvent.ACTION_CANCEL);
+                dispatch(view, stage, event);
             }
-            view.startAnimation(scaleAnimation);
-            removeAutoRelease(view);
+            event.setAction(action);
+        }
+
+        private static boolean dispatch(View view, Stage stage, MotionEvent event) {
+            View target = stage.target != null ? stage.target : view;
+            float x = event.getX();
+            float y = event.getY();
+            if (target != view) {
+                float offsetX = 0, offsetY = 0;
+                View child = target;
+                while (child != view && child.getParent() instanceof View) {
+                    View parent = (View) child.getParent();
+                    offsetX += child.getLeft() - parent.getScrollX();
+                    offsetY += child.getTop() - parent.getScrollY();
+                    child = parent;
+                }
+                if (child == view) {
+                    event.offsetLocation(-offsetX, -offsetY);
+                }
+            }
+            boolean handled = stage.listener.onTouch(target, event);
+            // stages may move the event (e.g. FlingMoveListener), the next one receives it unchanged
+            event.setLocation(x, y);
+            return handled;
         }
 
-        protected final void removeAutoRelease(View view) {
-            if (autoReleaseRunnable != null) {
-                view.removeCallbacks(autoReleaseRunnable);
-                autoReleaseRunnable = null;
+        private static final class Stage {
+            final BaseTouchListener listener;
+            @Nullable
+            final View target;
+            boolean isActive;
+
+            Stage(@NonNull BaseTouchListener listener, @Nullable View target) {
+                this.listener = listener;
+                this.target = target;
             }
         }
+    }
 
-        @ScaleType
-        protected int getScaleType() {
-            return TYPE_SHRINK;
-        }
+    ///////////////////////////////////////////////////////////////////////////
+    // TRACING
+    ///////////////////////////////////////////////////////////////////////////
 
-        protected float getRealScale() {
-            return DEFAULT_REAL_SCALE;
-        }
+    /**
+     * {@link Tracer} writing to {@link Trace}, the sections are visible in Perfetto.
+     * <br/>Async slices need api 29, they are skipped on older devices.
+     */
+    public static class SystemTracer implements Tracer {
 
-        /**
-         * Press scale delta
-         */
-        protected float getPressScale() {
-            return DEFAULT_PRESS_SCALE;
+        @Override
+        public void beginSection(@NonNull String name) {
+            Trace.beginSection(name);
         }
 
-        /**
-         * Release scale delta
-         */
-        protected float getReleaseScale() {
-            return DEFAULT_RELEASE_SCALE;
+        @Override
+        public void endSection() {
+            Trace.endSection();
         }
 
-        protected int getDuration() {
-            return DEFAULT_DURATION;
+        @Override
+        public void beginAsyncSection(@NonNull String name, int cookie) {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+                Trace.beginAsyncSection(name, cookie);
+            }
         }
 
-        protected int getMinTapTime() {
-            return MIN_TAP_TIME;
+        @Override
+        public void endAsyncSection(@NonNull String name, int cookie) {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+                Trace.endAsyncSection(name, cookie);
+            }
         }
+    }
 
-        protected int getOffsetReleaseX() {
-            return DEFAULT_OFFSET_RELEASE;
+    private static void traceBegin(String name) {
+        Tracer tracer = TouchUtils.tracer;
+        if (tracer != null) {
+            tracer.beginSection(name);
         }
+    }
 
-        protected int getOffsetReleaseY() {
-            return DEFAULT_OFFSET_RELEASE;
+    private static void traceEnd() {
+        Tracer tracer = TouchUtils.tracer;
+        if (tracer != null) {
+            tracer.endSection();
         }
+    }
 
-        protected int getAllowAutoRelease() {
-            return DEFAULT_ALLOW_AUTO_RELEASE;
+    private static void traceAsyncBegin(String name, int cookie) {
+        Tracer tracer = TouchUtils.tracer;
+        if (tracer != null) {
+            tracer.beginAsyncSection(name, cookie);
         }
+    }
 
-        protected int getAutoReleaseDelay() {
-            return DEFAULT_AUTO_RELEASE_DELAY;
+    private static void traceAsyncEnd(String name, int cookie) {
+        Tracer tracer = TouchUtils.tracer;
+        if (tracer != null) {
+            tracer.endAsyncSection(name, cookie);
         }
-
     }
 
     ///////////////////////////////////////////////////////////////////////////
     // Below are UTILS FUNC
     ///////////////////////////////////////////////////////////////////////////
 
+    /**
+     * {@link SpringAnimation} (dynamicanimation 1.0.0) throws when started from another thread
+     */
+    public static boolean isMainThread() {
+        return Looper.myLooper() == Looper.getMainLooper();
+    }
+
     public static float coerceIn(float value, float min, float max) {
         return Math.min(Math.max(value, min), max);
     }
 
+    /**
+     * Lowest stiffness for which a spring in pixels, started at displacement from its final position
+     * with velocity, stays settled from settleMillis on
+     *
+     * @param velocity px per second
+     */
+    public static float getSettleStiffness(float displacement, float velocity, float dampingRatio, int settleMillis) {
+        return getSettleStiffness(displacement, velocity, dampingRatio, SETTLE_THRESHOLD, settleMillis);
+    }
+
+    /**
+     * Bisection on the natural frequency, the settle check is monotonic in it
+     *
+     * @param threshold the settle threshold of the value, the one of the velocity is 62.5 times it
+     */
+    static float getSettleStiffness(float displacement, float velocity, float dampingRatio,
+                                    float threshold, int settleMillis) {
+        double seconds = settleMillis / 1000.0;
+        float low = MIN_SETTLE_FREQUENCY;
+        float high = MAX_SETTLE_FREQUENCY;
+        if (!isSettledAfter(displacement, velocity, high, dampingRatio, threshold, seconds)) {
+            return high * high;
+        }
+        for (int i = 0; i < SETTLE_ITERATIONS; i++) {
+            float middle = (low + high) / 2;
+            if (isSettledAfter(displacement, velocity, middle, dampingRatio, threshold, seconds)) {
+                high = middle;
+            } else {
+                low = middle;
+            }
+        }
+        return high * high;
+    }
+
+    /**
+     * Bound the displacement and the velocity from seconds on with the decaying envelope of the spring,
+     * the value at exactly seconds could be a zero crossing of an oscillation
+     */
+    private static boolean isSettledAfter(double displacement, double velocity, double naturalFreq,
+                                          double dampingRatio, double threshold, double seconds) {
+        double displacementBound, velocityBound;
+        if (dampingRatio < 1) {
+            // x(t) = amplitude * e^(-zeta * w * t) * cos(wd * t - phase), |v(t)| <= w * the same envelope
+            double dampedFreq = naturalFreq * Math.sqrt(1 - dampingRatio * dampingRatio);
+            double sinCoeff = (dampingRatio * naturalFreq * displacement + velocity) / dampedFreq;
+            displacementBound = Math.sqrt(displacement * displacement + sinCoeff * sinCoeff)
+                    * Math.exp(-dampingRatio * naturalFreq * seconds);
+            velocityBound = displacementBound * naturalFreq;
+        } else if (dampingRatio == 1) {
+            // x(t) = (x0 + b * t) * e^(-w * t)
+            double coeffA = Math.abs(displacement);
+            double coeffB = Math.abs(velocity + naturalFreq * displacement);
+            displacementBound = getPeakAfter(coeffA, coeffB, naturalFreq, seconds);
+            velocityBound = getPeakAfter(coeffB + naturalFreq * coeffA, naturalFreq * coeffB, naturalFreq, seconds);
+        } else {
+            double root = naturalFreq * Math.sqrt(dampingRatio * dampingRatio - 1);
+            double gammaPlus = -dampingRatio * naturalFreq + root;
+            double gammaMinus = -dampingRatio * naturalFreq - root;
+            double coeffB = (gammaMinus * displacement - velocity) / (gammaMinus - gammaPlus);
+            double coeffA = displacement - coeffB;
+            double expMinus = Math.exp(gammaMinus * seconds);
+            double expPlus = Math.exp(gammaPlus * seconds);
+            displacementBound = Math.abs(coeffA) * expMinus + Math.abs(coeffB) * expPlus;
+            velocityBound = Math.abs(coeffA * gammaMinus) * expMinus + Math.abs(coeffB * gammaPlus) * expPlus;
+        }
+        return displacementBound < threshold && velocityBound < threshold * 1000 / 16;
+    }
+
+    /**
+     * Max of (a + b * t) * e^(-w * t) from seconds on, a and b are positive
+     */
+    private static double getPeakAfter(double a, double b, double naturalFreq, double seconds) {
+        double peak = b > 0 ? Math.max(seconds, 1 / naturalFreq - a / b) : seconds;
+        return (a + b * peak) * Math.exp(-naturalFreq * peak);
+    }
+
+    /**
+     * Closed form of the {@link androidx.dynamicanimation.animation.FlingAnimation} friction:
+     * <br/>v(t) = v0 * e^(-4.2 * friction * t), so the distance until it stops is v0 / (4.2 * friction)
+     *
+     * @param velocity px per second
+     */
+    public static float getFlingDistance(float velocity, float friction) {
+        return velocity / (FLING_FRICTION_MULTIPLIER * friction);
+    }
+
     @NonNull
     public static Point getCenter(@NonNull View view,
                                   @NonNull FloatPropertyCompat<View> propertyX,
@@ -776,6 +3178,19 @@ public class TouchUtils {
                 (int) (propertyY.getValue(view) + (view.getHeight() / 2f)));
     }
 
+    /**
+     * Allocation free version of {@link #getCenter(View, FloatPropertyCompat, FloatPropertyCompat)}
+     */
+    @NonNull
+    public static Point getCenter(@NonNull View view,
+                                  @NonNull FloatPropertyCompat<View> propertyX,
+                                  @NonNull FloatPropertyCompat<View> propertyY,
+                                  @NonNull Point out) {
+        out.set((int) (propertyX.getValue(view) + (view.getWidth() / 2f)),
+                (int) (propertyY.getValue(view) + (view.getHeight() / 2f)));
+        return out;
+    }
+
     @NonNull
     public static Point getCenter(@NonNull View view, @NonNull Point pos) {
         return new Point(
@@ -783,25 +3198,53 @@ public class TouchUtils {
                 pos.y + (view.getHeight() / 2));
     }
 
+    /**
+     * Allocation free version of {@link #getCenter(View, Point)}, out may be pos
+     */
+    @NonNull
+    public static Point getCenter(@NonNull View view, @NonNull Point pos, @NonNull Point out) {
+        out.set(pos.x + (view.getWidth() / 2), pos.y + (view.getHeight() / 2));
+        return out;
+    }
+
     @NonNull
     public static Point getCorner(Rect area, @Corner int corner) {
+        return getCorner(area, corner, new Point());
+    }
+
+    /**
+     * Allocation free version of {@link #getCorner(Rect, int)}
+     */
+    @NonNull
+    public static Point getCorner(Rect area, @Corner int corner, @NonNull Point out) {
         switch (corner) {
             case TOP_LEFT:
-                return new Point(area.left, area.top);
+                out.set(area.left, area.top);
+                break;
             case TOP_RIGHT:
-                return new Point(area.right, area.top);
+                out.set(area.right, area.top);
+                break;
             case BOT_LEFT:
-                return new Point(area.left, area.bottom);
+                out.set(area.left, area.bottom);
+                break;
             case BOT_RIGHT:
-                return new Point(area.right, area.bottom);
+                out.set(area.right, area.bottom);
+                break;
+            default:
+                out.set(0, 0);
+                break;
         }
-        return new Point();
+        return out;
     }
 
     public static boolean isNearCornerPoint(@NonNull Point p, @NonNull Rect area) {
-        List<Pair<Integer, Double>> cornerDistances = getCornerDistances(p, area);
-        for (Pair<Integer, Double> cornerDistance : cornerDistances) {
-            if (cornerDistance.second <= 8) {
+        return isNearCornerPoint(p.x, p.y, area.left, area.top, area.right, area.bottom);
+    }
+
+    public static boolean isNearCornerPoint(int x, int y, int left, int top, int right, int bottom) {
+        long nearDistance = (long) NEAR_DISTANCE * NEAR_DISTANCE;
+        for (int corner = TOP_LEFT; corner <= BOT_RIGHT; corner++) {
+            if (getCornerDistanceSquared(x, y, corner, left, top, right, bottom) <= nearDistance) {
                 return true;
             }
         }
@@ -815,58 +3258,156 @@ public class TouchUtils {
      */
     @Corner
     public static int calcCorner(Point p, @NonNull Rect area) {
-        List<Pair<Integer, Double>> cornerDistances = getCornerDistances(p, area);
-        Pair<Integer, Double> minDistance = cornerDistances.get(0);
-        for (int i = 0; i < cornerDistances.size(); i++) {
-            Pair<Integer, Double> cornerDistance = cornerDistances.get(i);
-            if (minDistance.second > cornerDistance.second) {
-                minDistance = cornerDistance;
+        return calcCorner(p.x, p.y, area.left, area.top, area.right, area.bottom);
+    }
+
+    /**
+     * Allocation free version of {@link #calcCorner(Point, Rect)}
+     *
+     * @return the nearest corner of the area (left, top, right, bottom)
+     */
+    @Corner
+    public static int calcCorner(int x, int y, int left, int top, int right, int bottom) {
+        int minCorner = TOP_LEFT;
+        long minDistance = Long.MAX_VALUE;
+        for (int corner = TOP_LEFT; corner <= BOT_RIGHT; corner++) {
+            long distance = getCornerDistanceSquared(x, y, corner, left, top, right, bottom);
+            if (distance < minDistance) {
+                minDistance = distance;
+                minCorner = corner;
             }
         }
-        return minDistance.first;
+        return minCorner;
+    }
+
+    public static long getCornerDistanceSquared(int x, int y, @Corner int corner,
+                                                int left, int top, int right, int bottom) {
+        int cornerX = corner == TOP_LEFT || corner == BOT_LEFT ? left : right;
+        int cornerY = corner == TOP_LEFT || corner == TOP_RIGHT ? top : bottom;
+        return distanceSquared(x, y, cornerX, cornerY);
     }
 
     @NonNull
     public static List<Pair<Integer, Double>> getCornerDistances(@NonNull Point p, @NonNull Rect area) {
-        Point tl = new Point(area.left, area.top);
-        Point tr = new Point(area.right, area.top);
-        Point bl = new Point(area.left, area.bottom);
-        Point br = new Point(area.right, area.bottom);
-
         List<Pair<Integer, Double>> cornerDistances = new ArrayList<>();
-        cornerDistances.add(new Pair<>(TOP_LEFT, distance(p, tl)));
-        cornerDistances.add(new Pair<>(TOP_RIGHT, distance(p, tr)));
-        cornerDistances.add(new Pair<>(BOT_LEFT, distance(p, bl)));
-        cornerDistances.add(new Pair<>(BOT_RIGHT, distance(p, br)));
+        for (int corner = TOP_LEFT; corner <= BOT_RIGHT; corner++) {
+            long distance = getCornerDistanceSquared(p.x, p.y, corner, area.left, area.top, area.right, area.bottom);
+            cornerDistances.add(new Pair<>(corner, Math.sqrt(distance)));
+        }
         return cornerDistances;
     }
 
+    /**
+     * Wall of a {@link FlingMoveToWallListener.MoveMode} for the center of the view
+     */
+    @Wall
+    public static int getWall(@NonNull FlingMoveToWallListener.MoveMode mode, int centerX, int centerY,
+                              int left, int top, int right, int bottom) {
+        if (mode.wall != UNSET) {
+            return mode.wall;
+        }
+        float centerAreaX = (left + right) * 0.5f;
+        float centerAreaY = (top + bottom) * 0.5f;
+        switch (mode) {
+            default:
+            case Vertical:
+                return centerX < centerAreaX ? LEFT : RIGHT;
+            case Horizontal:
+                return centerY < centerAreaY ? TOP : BOT;
+            case Nearest:
+                int predictWallVer = centerX < centerAreaX ? LEFT : RIGHT;
+                int predictWallHoz = centerY < centerAreaY ? TOP : BOT;
+
+                int predictX = predictWallVer == LEFT ? left : right;
+                int predictY = predictWallHoz == TOP ? top : bottom;
+                float distanceToVer = Math.abs(centerX - predictX);
+                float distanceToHoz = Math.abs(centerY - predictY);
+
+                return distanceToVer / (right - left) > distanceToHoz / (bottom - top) ?
+                        predictWallHoz :
+                        predictWallVer;
+        }
+    }
+
     public static boolean isNearWallPoint(@NonNull Point p, @NonNull Rect area) {
-        List<Pair<Integer, Double>> cornerDistances = getWallDistances(p, area);
-        for (Pair<Integer, Double> cornerDistance : cornerDistances) {
-            if (cornerDistance.second <= 8) {
+        return isNearWallPoint(p.x, p.y, area.left, area.top, area.right, area.bottom);
+    }
+
+    /**
+     * Allocation free version of {@link #isNearWallPoint(Point, Rect)}, only the left and right walls
+     */
+    public static boolean isNearWallPoint(int x, int y, int left, int top, int right, int bottom) {
+        return isNearWallPoint(FlingMoveToWallListener.MoveMode.Vertical, x, y, left, top, right, bottom);
+    }
+
+    /**
+     * @return true if the point is near one of the walls of the move mode
+     */
+    public static boolean isNearWallPoint(@NonNull FlingMoveToWallListener.MoveMode mode,
+                                          int x, int y, int left, int top, int right, int bottom) {
+        long nearDistance = (long) NEAR_DISTANCE * NEAR_DISTANCE;
+        for (int wall = LEFT; wall <= BOT; wall++) {
+            if (mode.hasWall(wall) && getWallDistanceSquared(x, y, wall, left, top, right, bottom) <= nearDistance) {
                 return true;
             }
         }
         return false;
     }
 
+    /**
+     * @return the nearest wall of the area (left, top, right, bottom)
+     */
+    @Wall
+    public static int calcWall(int x, int y, int left, int top, int right, int bottom) {
+        int minWall = LEFT;
+        long minDistance = Long.MAX_VALUE;
+        for (int wall = LEFT; wall <= BOT; wall++) {
+            long distance = getWallDistanceSquared(x, y, wall, left, top, right, bottom);
+            if (distance < minDistance) {
+                minDistance = distance;
+                minWall = wall;
+            }
+        }
+        return minWall;
+    }
+
+    public static long getWallDistanceSquared(int x, int y, @Wall int wall,
+                                              int left, int top, int right, int bottom) {
+        switch (wall) {
+            case LEFT:
+                return distanceSquared(x, y, left, y);
+            case TOP:
+                return distanceSquared(x, y, x, top);
+            case RIGHT:
+                return distanceSquared(x, y, right, y);
+            case BOT:
+                return distanceSquared(x, y, x, bottom);
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * @return the distances to the 4 walls of the area, in the order LEFT, TOP, RIGHT, BOT <br/>
+     * (only LEFT and RIGHT before)
+     */
     @NonNull
     public static List<Pair<Integer, Double>> getWallDistances(@NonNull Point p, @NonNull Rect area) {
-        Point l = new Point(area.left, p.y);
-        Point r = new Point(area.right, p.y);
-
         List<Pair<Integer, Double>> wallDistances = new ArrayList<>();
-        wallDistances.add(new Pair<>(LEFT, distance(p, l)));
-        wallDistances.add(new Pair<>(RIGHT, distance(p, r)));
-
+        for (int wall = LEFT; wall <= BOT; wall++) {
+            long distance = getWallDistanceSquared(p.x, p.y, wall, area.left, area.top, area.right, area.bottom);
+            wallDistances.add(new Pair<>(wall, Math.sqrt(distance)));
+        }
         return wallDistances;
     }
 
     public static double distance(@NonNull Point a, @NonNull Point b) {
-        int dx = a.x - b.x;
-        int dy = a.y - b.y;
-        return Math.sqrt(dx * dx + dy * dy);
+        return Math.sqrt(distanceSquared(a.x, a.y, b.x, b.y));
+    }
+
+    public static long distanceSquared(int ax, int ay, int bx, int by) {
+        long dx = (long) ax - bx;
+        long dy = (long) ay - by;
+        return dx * dx + dy * dy;
     }
 
     @NonNull
@@ -875,4 +3416,41 @@ public class TouchUtils {
         return new Point(location[0], location[1]);
     }
 
+    /**
+     * Allocation free version of {@link #getLocationOnScreen(View, int[])}
+     */
+    @NonNull
+    public static Point getLocationOnScreen(@NonNull View view, @NonNull int[] location, @NonNull Point out) {
+        view.getLocationOnScreen(location);
+        out.set(location[0], location[1]);
+        return out;
+    }
+
+    @NonNull
+    private static ScaledConfiguration getScaledConfiguration(@NonNull Context context) {
+        ScaledConfiguration scaled = scaledConfiguration;
+        Configuration configuration = context.getResources().getConfiguration();
+        if (scaled == null || !scaled.configuration.equals(configuration)) {
+            scaled = new ScaledConfiguration(configuration, ViewConfiguration.get(context));
+            scaledConfiguration = scaled;
+        }
+        return scaled;
+    }
+
+    /**
+     * The {@link ViewConfiguration} values used by the listeners, shared by all the instances
+     * and loaded again when the configuration changes (density, display...)
+     */
+    private static final class ScaledConfiguration {
+        final Configuration configuration;
+        final int touchSlop;
+        final int maximumFlingVelocity;
+
+        ScaledConfiguration(@NonNull Configuration configuration, @NonNull ViewConfiguration viewConfiguration) {
+            this.configuration = new Configuration(configuration);
+            this.touchSlop = viewConfiguration.getScaledTouchSlop();
+            this.maximumFlingVelocity = viewConfiguration.getScaledMaximumFlingVelocity();
+        }
+    }
+
 }
@@ -0,0 +1,181 @@
+package com.mct.touchutils;
+
+import static com.mct.touchutils.TouchUtils.VELOCITY_IMPULSE;
+import static com.mct.touchutils.TouchUtils.VELOCITY_LSQ2;
+import static com.mct.touchutils.TouchUtils.VELOCITY_TRACKER;
+import static com.mct.touchutils.TouchUtils.coerceIn;
+
+import com.mct.touchutils.TouchUtils.VelocityStrategy;
+
+/**
+ * Pure java alternative of {@link android.view.VelocityTracker}, the samples are kept in a fixed ring buffer.
+ * <br/>{@link #VELOCITY_LSQ2}: least squares fit of a quadratic on the samples of the horizon.
+ * <br/>{@link #VELOCITY_IMPULSE}: velocity of the kinetic energy given by the samples, it reacts
+ * faster to the end of the drag. Same models as the platform strategies, the samples older
+ * than {@link #HORIZON_MS} or before a pause of {@link #STOPPED_MS} are ignored.
+ */
+public final class VelocityEstimator {
+
+    public static final int HISTORY_SIZE = 20;
+    public static final long HORIZON_MS = 100;
+    public static final long STOPPED_MS = 40;
+
+    @VelocityStrategy
+    private final int strategy;
+    private final long[] times = new long[HISTORY_SIZE];
+    private final float[] xs = new float[HISTORY_SIZE];
+    private final float[] ys = new float[HISTORY_SIZE];
+    private int head = -1, count;
+    private float xVelocity, yVelocity;
+
+    public VelocityEstimator(@VelocityStrategy int strategy) {
+        if (strategy == VELOCITY_TRACKER) {
+            throw new IllegalArgumentException("Use a VelocityTracker for VELOCITY_TRACKER");
+        }
+        this.strategy = strategy;
+    }
+
+    @VelocityStrategy
+    public int getStrategy() {
+        return strategy;
+    }
+
+    public void clear() {
+        head = -1;
+        count = 0;
+        xVelocity = yVelocity = 0;
+    }
+
+    /**
+     * @param eventTime in milliseconds, the samples must be added in order
+     */
+    public void addSample(long eventTime, float x, float y) {
+        if (count > 0 && eventTime - times[head] > STOPPED_MS) {
+            // the pointer stopped, the previous samples must not add velocity
+            clear();
+        }
+        head = (head + 1) % HISTORY_SIZE;
+        times[head] = eventTime;
+        xs[head] = x;
+        ys[head] = y;
+        if (count < HISTORY_SIZE) {
+            count++;
+        }
+    }
+
+    /**
+     * The pointer went up, like {@link android.view.VelocityTracker} a pause longer than {@link #STOPPED_MS}
+     * before the release means the pointer stopped, the velocity is 0
+     *
+     * @param eventTime in milliseconds, of the up event
+     */
+    public void addRelease(long eventTime) {
+        if (count > 0 && eventTime - times[head] > STOPPED_MS) {
+            clear();
+        }
+    }
+
+    /**
+     * Same contract as {@link android.view.VelocityTracker#computeCurrentVelocity(int, float)}
+     *
+     * @param units 1 for pixels per millisecond, 1000 for pixels per second
+     */
+    public void computeCurrentVelocity(int units, float maxVelocity) {
+        int size = 0;
+        while (size < count && times[head] - times[index(size)] <= HORIZON_MS) {
+            size++;
+        }
+        if (strategy == VELOCITY_IMPULSE) {
+            xVelocity = impulse(xs, size);
+            yVelocity = impulse(ys, size);
+        } else {
+            xVelocity = leastSquares(xs, size);
+            yVelocity = leastSquares(ys, size);
+        }
+        xVelocity = coerceIn(xVelocity * units, -maxVelocity, maxVelocity);
+        yVelocity = coerceIn(yVelocity * units, -maxVelocity, maxVelocity);
+    }
+
+    public float getXVelocity() {
+        return xVelocity;
+    }
+
+    public float getYVelocity() {
+        return yVelocity;
+    }
+
+    /**
+     * @param age 0 for the newest sample
+     */
+    private int index(int age) {
+        return (head - age + HISTORY_SIZE) % HISTORY_SIZE;
+    }
+
+    /**
+     * Fit p(t) = b0 + b1 * t + b2 * t^2 with t relative to the newest sample, the velocity is b1.
+     * Falls back to a line with 2 samples or when the quadratic is degenerate.
+     */
+    private float leastSquares(float[] positions, int size) {
+        if (size < 2) {
+            return 0;
+        }
+        long newestTime = times[head];
+        float newest = positions[head];
+        double s1 = 0, s2 = 0, s3 = 0, s4 = 0, sp = 0, stp = 0, st2p = 0;
+        for (int i = 0; i < size; i++) {
+            int index = index(i);
+            double t = times[index] - newestTime;
+            double p = positions[index] - newest;
+            double t2 = t * t;
+            s1 += t;
+            s2 += t2;
+            s3 += t2 * t;
+            s4 += t2 * t2;
+            sp += p;
+            stp += t * p;
+            st2p += t2 * p;
+        }
+        double n = size;
+        if (size > 2) {
+            // cramer's rule on the normal equations
+            double det = n * (s2 * s4 - s3 * s3) - s1 * (s1 * s4 - s2 * s3) + s2 * (s1 * s3 - s2 * s2);
+            if (Math.abs(det) > 1e-6) {
+                double detB1 = n * (stp * s4 - s3 * st2p) - sp * (s1 * s4 - s2 * s3) + s2 * (s1 * st2p - s2 * stp);
+                return (float) (detB1 / det);
+            }
+        }
+        double det = n * s2 - s1 * s1;
+        if (Math.abs(det) < 1e-6) {
+            return 0;
+        }
+        return (float) ((n * stp - s1 * sp) / det);
+    }
+
+    /**
+     * Accumulate the work done on a unit mass by each segment, from the oldest sample,
+     * the velocity is the one of the resulting kinetic energy.
+     */
+    private float impulse(float[] positions, int size) {
+        double work = 0;
+        for (int i = size - 1; i > 0; i--) {
+            int from = index(i);
+            int to = index(i - 1);
+            long dt = times[to] - times[from];
+            if (dt <= 0) {
+                continue;
+            }
+            double previous = kineticEnergyToVelocity(work);
+            double current = (positions[to] - positions[from]) / dt;
+            work += (current - previous) * Math.abs(current);
+            if (i == size - 1) {
+                // the first segment starts from rest
+                work *= 0.5;
+            }
+        }
+        return (float) kineticEnergyToVelocity(work);
+    }
+
+    private static double kineticEnergyToVelocity(double work) {
+        return Math.signum(work) * Math.sqrt(2 * Math.abs(work));
+    }
+}
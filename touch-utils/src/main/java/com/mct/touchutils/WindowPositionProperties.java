@@ -0,0 +1,134 @@
+package com.mct.touchutils;
+
+import android.view.View;
+import android.view.WindowManager;
+
+import androidx.annotation.NonNull;
+import androidx.dynamicanimation.animation.FloatPropertyCompat;
+
+/**
+ * X/Y property pair for a view added with {@link WindowManager}.
+ * <br/>Writes only go to the {@link WindowManager.LayoutParams}, they are committed
+ * with a single {@link WindowManager#updateViewLayout} and skipped when neither x nor y
+ * changed since the last commit.
+ * <br/>Once both x and y are written the commit is made at once, so the writes of the springs
+ * land in the traversal of their frame. A single written axis is committed on the next frame
+ * of the view, after that the writes of that axis alone are committed at once.
+ */
+public class WindowPositionProperties {
+
+    private static final int AXIS_NONE = 0;
+    private static final int AXIS_X = 1;
+    private static final int AXIS_Y = 2;
+
+    private final WindowManager windowManager;
+    private final WindowManager.LayoutParams params;
+    private final FloatPropertyCompat<View> propX, propY;
+    private final Runnable commitRunnable = this::onFrameCommit;
+    private View view;
+    private int committedX, committedY;
+    private int dirtyAxes;
+    private int singleAxis = AXIS_NONE;
+    private boolean isScheduled;
+
+    public WindowPositionProperties(@NonNull WindowManager windowManager,
+                                    @NonNull WindowManager.LayoutParams params) {
+        this.windowManager = windowManager;
+        this.params = params;
+        this.committedX = params.x;
+        this.committedY = params.y;
+        this.propX = new FloatPropertyCompat<View>("WINDOW_X") {
+            @Override
+            public float getValue(View object) {
+                return params.x;
+            }
+
+            @Override
+            public void setValue(View object, float value) {
+                params.x = (int) value;
+                onWrite(object, AXIS_X);
+            }
+        };
+        this.propY = new FloatPropertyCompat<View>("WINDOW_Y") {
+            @Override
+            public float getValue(View object) {
+                return params.y;
+            }
+
+            @Override
+            public void setValue(View object, float value) {
+                params.y = (int) value;
+                onWrite(object, AXIS_Y);
+            }
+        };
+    }
+
+    @NonNull
+    public FloatPropertyCompat<View> getPropX() {
+        return propX;
+    }
+
+    @NonNull
+    public FloatPropertyCompat<View> getPropY() {
+        return propY;
+    }
+
+    @NonNull
+    public WindowManager.LayoutParams getParams() {
+        return params;
+    }
+
+    /**
+     * Commit the pending position now
+     */
+    public void commit() {
+        cancel();
+        dirtyAxes = AXIS_NONE;
+        if (view == null || !view.isAttachedToWindow()) {
+            return;
+        }
+        if (params.x == committedX && params.y == committedY) {
+            return;
+        }
+        committedX = params.x;
+        committedY = params.y;
+        windowManager.updateViewLayout(view, params);
+    }
+
+    /**
+     * Drop the pending commit, call it when the view is removed from window
+     */
+    public void cancel() {
+        if (isScheduled) {
+            isScheduled = false;
+            view.removeCallbacks(commitRunnable);
+        }
+    }
+
+    private void onWrite(View view, int axis) {
+        if (this.view != view) {
+            cancel();
+            this.view = view;
+        }
+        dirtyAxes |= axis;
+        if (dirtyAxes == (AXIS_X | AXIS_Y) || singleAxis == axis) {
+            commit();
+            return;
+        }
+        // the other axis is written again, wait for it
+        singleAxis = AXIS_NONE;
+        if (!isScheduled) {
+            isScheduled = true;
+            view.postOnAnimation(commitRunnable);
+        }
+    }
+
+    private void onFrameCommit() {
+        isScheduled = false;
+        if (dirtyAxes != AXIS_NONE) {
+            // only one axis was written during the last frame
+            singleAxis = dirtyAxes;
+            commit();
+        }
+    }
+}
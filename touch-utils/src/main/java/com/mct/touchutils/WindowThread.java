@@ -0,0 +1,69 @@
+package com.mct.touchutils;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.WindowManager;
+
+import androidx.annotation.NonNull;
+
+/**
+ * A {@link HandlerThread} owning overlay windows. A window added from a thread receives its
+ * input, frame callbacks and layouts on that thread, so the listeners, their springs
+ * (see {@link SpringScheduler}) and the {@link WindowManager#updateViewLayout} of
+ * {@link WindowPositionProperties} all run here, isolated from the main thread.
+ * <br/>The views of a window must only be touched from its thread, use {@link #post(Runnable)}.
+ */
+public final class WindowThread {
+
+    private final HandlerThread thread;
+    private final Handler handler;
+
+    public WindowThread(@NonNull String name) {
+        thread = new HandlerThread(name, android.os.Process.THREAD_PRIORITY_DISPLAY);
+        thread.start();
+        handler = new Handler(thread.getLooper());
+    }
+
+    @NonNull
+    public Looper getLooper() {
+        return thread.getLooper();
+    }
+
+    @NonNull
+    public Handler getHandler() {
+        return handler;
+    }
+
+    public boolean isCurrentThread() {
+        return Looper.myLooper() == thread.getLooper();
+    }
+
+    /**
+     * Run now when called from this thread, otherwise post it
+     */
+    public void post(@NonNull Runnable runnable) {
+        if (isCurrentThread()) {
+            runnable.run();
+        } else {
+            handler.post(runnable);
+        }
+    }
+
+    public void addView(@NonNull WindowManager windowManager, @NonNull View view, @NonNull ViewGroup.LayoutParams params) {
+        post(() -> windowManager.addView(view, params));
+    }
+
+    public void removeView(@NonNull WindowManager windowManager, @NonNull View view) {
+        post(() -> windowManager.removeView(view));
+    }
+
+    /**
+     * Quit once the pending messages ran, remove the windows before
+     */
+    public void quit() {
+        thread.quitSafely();
+    }
+}
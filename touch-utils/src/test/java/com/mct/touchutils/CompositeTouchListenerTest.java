@@ -0,0 +1,194 @@
+package com.mct.touchutils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewConfiguration;
+
+import androidx.annotation.NonNull;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.mct.touchutils.TouchUtils.BaseTouchListener;
+import com.mct.touchutils.TouchUtils.CompositeTouchListener;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+public class CompositeTouchListenerTest {
+
+    private static final class RecordingStage extends BaseTouchListener {
+        private final boolean isClaimOnTouching;
+        private final List<Integer> actions = new ArrayList<>();
+        private int clicks;
+
+        RecordingStage(boolean isClaimOnTouching) {
+            this.isClaimOnTouching = isClaimOnTouching;
+        }
+
+        @Override
+        public void init(View v) {
+        }
+
+        @Override
+        protected void onActionTouch(@NonNull View view, @NonNull MotionEvent event) {
+            actions.add(event.getActionMasked());
+        }
+
+        @Override
+        protected boolean onActionStop(@NonNull View view, @NonNull MotionEvent event) {
+            if (event.getActionMasked() == MotionEvent.ACTION_UP && !isTouching() && acquireClick()) {
+                clicks++;
+            }
+            return true;
+        }
+
+        @Override
+        protected boolean isClaimOnTouching() {
+            return isClaimOnTouching;
+        }
+    }
+
+    private CompositeTouchListener composite;
+    private View view;
+    private int slop;
+
+    @Before
+    public void setUp() {
+        composite = new CompositeTouchListener();
+        view = new View(ApplicationProvider.getApplicationContext());
+        view.layout(0, 0, 100, 100);
+        slop = ViewConfiguration.get(view.getContext()).getScaledTouchSlop();
+    }
+
+    @Test
+    public void claim_cancelsTheOtherStagesOnce() {
+        RecordingStage press = new RecordingStage(false);
+        RecordingStage drag = new RecordingStage(false);
+        composite.addStage(press).addStage(drag);
+
+        send(MotionEvent.ACTION_DOWN, 10, 10);
+        composite.claim(drag);
+        send(MotionEvent.ACTION_MOVE, 11, 11);
+        send(MotionEvent.ACTION_MOVE, 12, 12);
+        send(MotionEvent.ACTION_UP, 12, 12);
+
+        assertSame(drag, composite.getOwner());
+        assertEquals(actions(MotionEvent.ACTION_DOWN, MotionEvent.ACTION_CANCEL), press.actions);
+        assertEquals(actions(MotionEvent.ACTION_DOWN, MotionEvent.ACTION_MOVE, MotionEvent.ACTION_MOVE,
+                MotionEvent.ACTION_UP), drag.actions);
+    }
+
+    @Test
+    public void touchingStage_ownsTheGesture() {
+        RecordingStage press = new RecordingStage(false);
+        RecordingStage fling = new RecordingStage(true);
+        composite.addStage(press).addStage(fling);
+
+        send(MotionEvent.ACTION_DOWN, 10, 10);
+        send(MotionEvent.ACTION_MOVE, 11, 11);
+        assertNull(composite.getOwner());
+
+        send(MotionEvent.ACTION_MOVE, 10 + slop * 2, 10);
+        assertSame(fling, composite.getOwner());
+        // the press stage saw the move that crossed the slop, then the cancel
+        assertEquals(actions(MotionEvent.ACTION_DOWN, MotionEvent.ACTION_MOVE, MotionEvent.ACTION_MOVE,
+                MotionEvent.ACTION_CANCEL), press.actions);
+    }
+
+    @Test
+    public void cancel_keepsTheEventOfTheOwner() {
+        RecordingStage press = new RecordingStage(false);
+        RecordingStage drag = new RecordingStage(false);
+        composite.addStage(press).addStage(drag);
+        send(MotionEvent.ACTION_DOWN, 10, 10);
+        composite.claim(drag);
+
+        MotionEvent event = MotionEvent.obtain(0, 10, MotionEvent.ACTION_MOVE, 20, 30, 0);
+        composite.onTouch(view, event);
+        // the event was reused as the cancel, it is handed back unchanged
+        assertEquals(MotionEvent.ACTION_MOVE, event.getAction());
+        assertEquals(20, event.getX(), 0);
+        assertEquals(30, event.getY(), 0);
+        event.recycle();
+    }
+
+    @Test
+    public void nextDown_reactivatesTheStages() {
+        RecordingStage press = new RecordingStage(false);
+        RecordingStage drag = new RecordingStage(false);
+        composite.addStage(press).addStage(drag);
+        send(MotionEvent.ACTION_DOWN, 10, 10);
+        composite.claim(drag);
+        send(MotionEvent.ACTION_UP, 10, 10);
+
+        press.actions.clear();
+        send(MotionEvent.ACTION_DOWN, 10, 10);
+        assertNull(composite.getOwner());
+        assertEquals(actions(MotionEvent.ACTION_DOWN), press.actions);
+    }
+
+    @Test
+    public void click_isDecidedByTheTouchingStage() {
+        RecordingStage press = new RecordingStage(false);
+        RecordingStage fling = new RecordingStage(true);
+        composite.addStage(press).addStage(fling);
+
+        send(MotionEvent.ACTION_DOWN, 10, 10);
+        send(MotionEvent.ACTION_UP, 10, 10);
+
+        assertEquals(0, press.clicks);
+        assertEquals(1, fling.clicks);
+    }
+
+    @Test
+    public void click_withoutTouchingStage_onlyTheFirstClicks() {
+        RecordingStage first = new RecordingStage(false);
+        RecordingStage second = new RecordingStage(false);
+        composite.addStage(first).addStage(second);
+
+        send(MotionEvent.ACTION_DOWN, 10, 10);
+        send(MotionEvent.ACTION_UP, 10, 10);
+        send(MotionEvent.ACTION_DOWN, 10, 10);
+        send(MotionEvent.ACTION_UP, 10, 10);
+
+        assertEquals(2, first.clicks);
+        assertEquals(0, second.clicks);
+    }
+
+    @Test
+    public void click_notPerformedByACanceledStage() {
+        RecordingStage first = new RecordingStage(false);
+        RecordingStage second = new RecordingStage(false);
+        composite.addStage(first).addStage(second);
+
+        send(MotionEvent.ACTION_DOWN, 10, 10);
+        composite.claim(second);
+        send(MotionEvent.ACTION_UP, 10, 10);
+
+        assertEquals(0, first.clicks);
+        assertEquals(1, second.clicks);
+    }
+
+    private void send(int action, float x, float y) {
+        MotionEvent event = MotionEvent.obtain(0, 0, action, x, y, 0);
+        composite.onTouch(view, event);
+        event.recycle();
+    }
+
+    private static List<Integer> actions(Integer... actions) {
+        List<Integer> list = new ArrayList<>();
+        for (Integer action : actions) {
+            list.add(action);
+        }
+        return list;
+    }
+}
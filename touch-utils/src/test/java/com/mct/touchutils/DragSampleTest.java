@@ -0,0 +1,61 @@
+package com.mct.touchutils;
+
+import static org.junit.Assert.assertEquals;
+
+import android.view.MotionEvent;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+public class DragSampleTest extends TouchTestSupport {
+
+    private static final class SampleListener extends CornerListener {
+        private final List<float[]> samples = new ArrayList<>();
+
+        @Override
+        protected void onDragSample(@NonNull View view, float x, float y, long eventTime) {
+            samples.add(new float[]{x, y, eventTime});
+        }
+    }
+
+    @Test
+    public void batchedMove_everySampleInOrder() {
+        SampleListener listener = new SampleListener();
+        View view = newView();
+        view.setX(200);
+        view.setY(300);
+
+        send(listener, view, MotionEvent.ACTION_DOWN, 0, 10, 20);
+
+        MotionEvent move = MotionEvent.obtain(0, 8, MotionEvent.ACTION_MOVE, 15, 22, 0);
+        move.addBatch(12, 25, 30, 1, 1, 0);
+        move.addBatch(16, 40, 45, 1, 1, 0);
+        move.addBatch(20, 60, 70, 1, 1, 0);
+        listener.onTouch(view, move);
+        move.recycle();
+
+        // the down then the 3 historical samples and the current one, moved by the pointer delta
+        float[][] expected = {
+                {200, 300, 0},
+                {205, 302, 8},
+                {215, 310, 12},
+                {230, 325, 16},
+                {250, 350, 20},
+        };
+        assertEquals(expected.length, listener.samples.size());
+        for (int i = 0; i < expected.length; i++) {
+            float[] sample = listener.samples.get(i);
+            assertEquals("x " + i, expected[i][0], sample[0], 0.01f);
+            assertEquals("y " + i, expected[i][1], sample[1], 0.01f);
+            assertEquals("time " + i, expected[i][2], sample[2], 0);
+        }
+    }
+}
@@ -0,0 +1,551 @@
+package com.mct.touchutils;
+
+import static com.mct.touchutils.TouchUtils.BOT_LEFT;
+import static com.mct.touchutils.TouchUtils.LEFT;
+import static com.mct.touchutils.TouchUtils.PREDICT_FRICTION;
+import static com.mct.touchutils.TouchUtils.PREDICT_LINEAR;
+import static com.mct.touchutils.TouchUtils.RIGHT;
+import static com.mct.touchutils.TouchUtils.TOP;
+import static com.mct.touchutils.TouchUtils.TOP_LEFT;
+import static com.mct.touchutils.TouchUtils.TOP_RIGHT;
+import static com.mct.touchutils.TouchUtils.VELOCITY_LSQ2;
+import static com.mct.touchutils.TouchUtils.calcCorner;
+import static com.mct.touchutils.TouchUtils.coerceIn;
+import static com.mct.touchutils.TouchUtils.getFlingDistance;
+import static com.mct.touchutils.TouchUtils.getSettleStiffness;
+import static com.mct.touchutils.TouchUtils.getWall;
+
+import android.view.MotionEvent;
+
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.dynamicanimation.animation.DynamicAnimation;
+import androidx.dynamicanimation.animation.SpringForce;
+
+import com.mct.touchutils.TouchUtils.FlingMoveToWallListener;
+import com.mct.touchutils.TouchUtils.PredictMode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Headless replay of the fling to corner / wall, to tune the parameters of
+ * {@link TouchUtils.FlingMoveListener} on the JVM.
+ * <br/>The view follows the drag samples with the move spring, the target is decided like the
+ * listeners and the snap springs run until they settle. The flings are split across a {@link ForkJoinPool}.
+ */
+public final class FlingSimulator {
+
+    public interface FrameClock {
+        long nextFrameNanos(long frameTimeNanos);
+    }
+
+    private static final long MAX_SETTLE_NANOS = 10_000_000_000L;
+    private static final int SPLIT_THRESHOLD = 64;
+    private static final float SETTLE_THRESHOLD = DynamicAnimation.MIN_VISIBLE_CHANGE_PIXELS * 0.75f;
+    private static final float SETTLE_VELOCITY_THRESHOLD = SETTLE_THRESHOLD * 1000f / 16f;
+
+    private final ForkJoinPool pool;
+    private final List<Fling> flings = new ArrayList<>();
+    private FrameClock clock = fixedClock(60);
+    private int left, top, right, bottom, viewWidth, viewHeight;
+
+    public FlingSimulator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public FlingSimulator(@NonNull ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    @NonNull
+    public static FrameClock fixedClock(float refreshRate) {
+        long period = (long) (1_000_000_000L / refreshRate);
+        return frameTimeNanos -> frameTimeNanos + period;
+    }
+
+    @NonNull
+    public FlingSimulator setFrameClock(@NonNull FrameClock clock) {
+        this.clock = clock;
+        return this;
+    }
+
+    /**
+     * The area of the listener and the size of the view
+     */
+    @NonNull
+    public FlingSimulator setArea(int left, int top, int right, int bottom, int viewWidth, int viewHeight) {
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+        this.viewWidth = viewWidth;
+        this.viewHeight = viewHeight;
+        return this;
+    }
+
+    /**
+     * @param times          in milliseconds, the samples are view positions
+     * @param expectedTarget the corner or wall the user aimed, or -1 when unknown
+     */
+    @NonNull
+    public FlingSimulator addFling(@NonNull long[] times, @NonNull float[] xs, @NonNull float[] ys, int expectedTarget) {
+        if (times.length < 2 || times.length != xs.length || times.length != ys.length) {
+            throw new IllegalArgumentException("A fling needs at least 2 samples of the same size");
+        }
+        flings.add(new Fling(times, xs, ys, expectedTarget));
+        return this;
+    }
+
+    /**
+     * Each gesture of the recording (first pointer), the view is centered on the pointer
+     */
+    @NonNull
+    public FlingSimulator addRecording(@NonNull GestureRecording recording) {
+        GestureRecording.Reader reader = recording.newReader();
+        int size = 0;
+        long[] times = new long[64];
+        float[] xs = new float[64], ys = new float[64];
+        while (reader.next()) {
+            int action = reader.getAction() & MotionEvent.ACTION_MASK;
+            if (action == MotionEvent.ACTION_DOWN) {
+                size = 0;
+            }
+            for (int sample = 0; sample < reader.getSampleCount(); sample++) {
+                if (size == times.length) {
+                    times = Arrays.copyOf(times, size * 2);
+                    xs = Arrays.copyOf(xs, size * 2);
+                    ys = Arrays.copyOf(ys, size * 2);
+                }
+                times[size] = reader.getSampleTime(sample);
+                xs[size] = reader.getX(sample, 0) + reader.getRawOffsetX() - viewWidth / 2f;
+                ys[size] = reader.getY(sample, 0) + reader.getRawOffsetY() - viewHeight / 2f;
+                size++;
+            }
+            if (action == MotionEvent.ACTION_UP && size >= 2) {
+                addFling(Arrays.copyOf(times, size), Arrays.copyOf(xs, size), Arrays.copyOf(ys, size), -1);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Random throws with the friction of the params, labeled with the target of their landing
+     *
+     * @param noise max pixels added to each sample
+     */
+    @NonNull
+    public FlingSimulator addSyntheticFlings(@NonNull Params params, int count, float noise, long seed) {
+        Random random = new Random(seed);
+        int moveRight = right - viewWidth;
+        int moveBottom = bottom - viewHeight;
+        int samples = 10;
+        long interval = 8;
+        float unitDistance = getFlingDistance(1, params.friction);
+        for (int i = 0; i < count; i++) {
+            float startX = left + random.nextFloat() * (moveRight - left);
+            float startY = top + random.nextFloat() * (moveBottom - top);
+            float landX = left + random.nextFloat() * (moveRight - left);
+            float landY = top + random.nextFloat() * (moveBottom - top);
+            // land where the clamped velocity goes
+            float maxVelocity = params.maximumFlingVelocity;
+            float velocityX = coerceIn((landX - startX) / unitDistance, -maxVelocity, maxVelocity);
+            float velocityY = coerceIn((landY - startY) / unitDistance, -maxVelocity, maxVelocity);
+            landX = startX + getFlingDistance(velocityX, params.friction);
+            landY = startY + getFlingDistance(velocityY, params.friction);
+            long[] times = new long[samples];
+            float[] xs = new float[samples], ys = new float[samples];
+            for (int s = 0; s < samples; s++) {
+                times[s] = s * interval;
+                float before = (samples - 1 - s) * interval / 1000f;
+                xs[s] = startX - velocityX * before + (random.nextFloat() * 2 - 1) * noise;
+                ys[s] = startY - velocityY * before + (random.nextFloat() * 2 - 1) * noise;
+            }
+            addFling(times, xs, ys, decide(params, (int) landX, (int) landY));
+        }
+        return this;
+    }
+
+    public int getFlingCount() {
+        return flings.size();
+    }
+
+    /**
+     * Every fling with each params
+     */
+    @NonNull
+    public List<Result> run(@NonNull List<Params> paramsList) {
+        List<ForkJoinTask<Result>> tasks = new ArrayList<>(paramsList.size());
+        for (Params params : paramsList) {
+            tasks.add(pool.submit(new RunTask(params, 0, flings.size())));
+        }
+        List<Result> results = new ArrayList<>(tasks.size());
+        for (ForkJoinTask<Result> task : tasks) {
+            results.add(task.join());
+        }
+        return results;
+    }
+
+    private int decide(Params params, int x, int y) {
+        int centerX = x + viewWidth / 2;
+        int centerY = y + viewHeight / 2;
+        if (params.moveMode == null) {
+            return calcCorner(centerX, centerY, left, top, right, bottom);
+        }
+        return getWall(params.moveMode, centerX, centerY, left, top, right - viewWidth, bottom - viewHeight);
+    }
+
+    private void simulate(Params params, Fling fling, Result result, float[] values, float[] velocities,
+                          VelocityEstimator estimator) {
+        int moveRight = right - viewWidth;
+        int moveBottom = bottom - viewHeight;
+        float minX = left - 2 * viewWidth, maxX = moveRight + 2 * viewWidth;
+        float minY = top - 2 * viewHeight, maxY = moveBottom + 2 * viewHeight;
+
+        // drag
+        int count = fling.times.length;
+        long releaseNanos = fling.times[count - 1] * 1_000_000L;
+        long frameNanos = fling.times[0] * 1_000_000L;
+        values[0] = fling.xs[0];
+        values[1] = fling.ys[0];
+        velocities[0] = velocities[1] = 0;
+        estimator.clear();
+        int next = 0;
+        float targetX = values[0], targetY = values[1];
+        while (true) {
+            long nextFrameNanos = clock.nextFrameNanos(frameNanos);
+            if (nextFrameNanos > releaseNanos) {
+                break;
+            }
+            while (next < count && fling.times[next] * 1_000_000L <= nextFrameNanos) {
+                estimator.addSample(fling.times[next], fling.xs[next], fling.ys[next]);
+                targetX = fling.xs[next];
+                targetY = fling.ys[next];
+                next++;
+            }
+            double deltaSeconds = (nextFrameNanos - frameNanos) / 1e9;
+            SpringScheduler.step(values, velocities, 0, targetX, params.moveStiffness, params.moveDampingRatio, deltaSeconds);
+            SpringScheduler.step(values, velocities, 1, targetY, params.moveStiffness, params.moveDampingRatio, deltaSeconds);
+            values[0] = coerceIn(values[0], minX, maxX);
+            values[1] = coerceIn(values[1], minY, maxY);
+            frameNanos = nextFrameNanos;
+        }
+        for (; next < count; next++) {
+            estimator.addSample(fling.times[next], fling.xs[next], fling.ys[next]);
+        }
+
+        // release
+        estimator.computeCurrentVelocity(1000, params.maximumFlingVelocity);
+        int predictX = (int) coerceIn(values[0] + params.predictDistance(estimator.getXVelocity()), left, moveRight);
+        int predictY = (int) coerceIn(values[1] + params.predictDistance(estimator.getYVelocity()), top, moveBottom);
+        int target = decide(params, predictX, predictY);
+        float finalX, finalY;
+        if (params.moveMode == null) {
+            finalX = target == TOP_LEFT || target == BOT_LEFT ? left : moveRight;
+            finalY = target == TOP_LEFT || target == TOP_RIGHT ? top : moveBottom;
+        } else if (target == LEFT || target == RIGHT) {
+            finalX = target == LEFT ? left : moveRight;
+            finalY = predictY;
+        } else {
+            finalX = predictX;
+            finalY = target == TOP ? top : moveBottom;
+        }
+
+        // snap, the springs keep the velocity of the drag
+        float stiffnessX = params.stiffnessX, dampingRatioX = params.dampingRatioX;
+        float stiffnessY = params.stiffnessY, dampingRatioY = params.dampingRatioY;
+        if (params.snapSettleMillis > 0) {
+            dampingRatioX = dampingRatioY = params.snapDampingRatio;
+            stiffnessX = getSettleStiffness(values[0] - finalX, velocities[0], dampingRatioX, params.snapSettleMillis);
+            stiffnessY = getSettleStiffness(values[1] - finalY, velocities[1], dampingRatioY, params.snapSettleMillis);
+        }
+        float signX = Math.signum(finalX - values[0]);
+        float signY = Math.signum(finalY - values[1]);
+        float overshoot = 0;
+        int frames = 0;
+        boolean isSettledX = false, isSettledY = false;
+        long settleNanos = MAX_SETTLE_NANOS;
+        while (frameNanos - releaseNanos < MAX_SETTLE_NANOS) {
+            long nextFrameNanos = clock.nextFrameNanos(frameNanos);
+            double deltaSeconds = (nextFrameNanos - frameNanos) / 1e9;
+            frameNanos = nextFrameNanos;
+            frames++;
+            if (!isSettledX) {
+                SpringScheduler.step(values, velocities, 0, finalX, stiffnessX, dampingRatioX, deltaSeconds);
+                values[0] = coerceIn(values[0], minX, maxX);
+                overshoot = Math.max(overshoot, (values[0] - finalX) * signX);
+                isSettledX = isSettled(values[0], velocities[0], finalX);
+            }
+            if (!isSettledY) {
+                SpringScheduler.step(values, velocities, 1, finalY, stiffnessY, dampingRatioY, deltaSeconds);
+                values[1] = coerceIn(values[1], minY, maxY);
+                overshoot = Math.max(overshoot, (values[1] - finalY) * signY);
+                isSettledY = isSettled(values[1], velocities[1], finalY);
+            }
+            if (isSettledX && isSettledY) {
+                settleNanos = frameNanos - releaseNanos;
+                break;
+            }
+        }
+        result.add(settleNanos, frames, overshoot, fling.expectedTarget, target);
+    }
+
+    private static boolean isSettled(float value, float velocity, float finalPosition) {
+        return Math.abs(velocity) < SETTLE_VELOCITY_THRESHOLD && Math.abs(value - finalPosition) < SETTLE_THRESHOLD;
+    }
+
+    private final class RunTask extends RecursiveTask<Result> {
+
+        private final Params params;
+        private final int from, to;
+
+        RunTask(Params params, int from, int to) {
+            this.params = params;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Result compute() {
+            if (to - from > SPLIT_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                RunTask second = new RunTask(params, middle, to);
+                second.fork();
+                Result result = new RunTask(params, from, middle).compute();
+                result.merge(second.join());
+                return result;
+            }
+            Result result = new Result(params);
+            float[] values = new float[2];
+            float[] velocities = new float[2];
+            VelocityEstimator estimator = new VelocityEstimator(VELOCITY_LSQ2);
+            for (int i = from; i < to; i++) {
+                simulate(params, flings.get(i), result, values, velocities, estimator);
+            }
+            return result;
+        }
+    }
+
+    private static final class Fling {
+        final long[] times;
+        final float[] xs, ys;
+        final int expectedTarget;
+
+        Fling(long[] times, float[] xs, float[] ys, int expectedTarget) {
+            this.times = times;
+            this.xs = xs;
+            this.ys = ys;
+            this.expectedTarget = expectedTarget;
+        }
+    }
+
+    /**
+     * Defaults are the ones of the listener
+     */
+    public static final class Params {
+
+        private float stiffnessX = 150, dampingRatioX = 0.6f;
+        private float stiffnessY = 150, dampingRatioY = 0.6f;
+        private float moveStiffness = SpringForce.STIFFNESS_HIGH;
+        private float moveDampingRatio = SpringForce.DAMPING_RATIO_NO_BOUNCY;
+        private int lostVelocityPercent = 90;
+        @PredictMode
+        private int predictMode = PREDICT_LINEAR;
+        private float friction = 1f;
+        private float maximumFlingVelocity = 8000;
+        private int snapSettleMillis;
+        private float snapDampingRatio = SpringForce.DAMPING_RATIO_NO_BOUNCY;
+        @Nullable
+        private FlingMoveToWallListener.MoveMode moveMode;
+
+        @NonNull
+        public Params setSpringX(float stiffness, float dampingRatio) {
+            stiffnessX = stiffness;
+            dampingRatioX = dampingRatio;
+            return this;
+        }
+
+        @NonNull
+        public Params setSpringY(float stiffness, float dampingRatio) {
+            stiffnessY = stiffness;
+            dampingRatioY = dampingRatio;
+            return this;
+        }
+
+        @NonNull
+        public Params setMoveSpring(float stiffness, float dampingRatio) {
+            moveStiffness = stiffness;
+            moveDampingRatio = dampingRatio;
+            return this;
+        }
+
+        @NonNull
+        public Params setLostVelocityPercent(@IntRange(from = 0, to = 100) int lostVelocityPercent) {
+            this.lostVelocityPercent = lostVelocityPercent;
+            return this;
+        }
+
+        @NonNull
+        public Params setPredictMode(@PredictMode int predictMode, float friction) {
+            this.predictMode = predictMode;
+            this.friction = friction;
+            return this;
+        }
+
+        /**
+         * 0 to use the springs of the params
+         */
+        @NonNull
+        public Params setSnapSettleTime(int settleMillis, float dampingRatio) {
+            snapSettleMillis = settleMillis;
+            snapDampingRatio = dampingRatio;
+            return this;
+        }
+
+        /**
+         * In pixels per second
+         */
+        @NonNull
+        public Params setMaximumFlingVelocity(float maximumFlingVelocity) {
+            this.maximumFlingVelocity = maximumFlingVelocity;
+            return this;
+        }
+
+        @NonNull
+        public Params snapToCorner() {
+            moveMode = null;
+            return this;
+        }
+
+        @NonNull
+        public Params snapToWall(@NonNull FlingMoveToWallListener.MoveMode moveMode) {
+            this.moveMode = moveMode;
+            return this;
+        }
+
+        private float predictDistance(float velocity) {
+            if (predictMode == PREDICT_FRICTION) {
+                return getFlingDistance(velocity, friction);
+            }
+            return velocity * (100 - lostVelocityPercent) / 100;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return (snapSettleMillis > 0
+                    ? "settle=" + snapSettleMillis + "ms/" + snapDampingRatio
+                    : "spring=" + stiffnessX + "/" + dampingRatioX + "," + stiffnessY + "/" + dampingRatioY)
+                    + " move=" + moveStiffness + "/" + moveDampingRatio
+                    + " predict=" + (predictMode == PREDICT_FRICTION ? "friction " + friction : "linear " + lostVelocityPercent + "%")
+                    + " snap=" + (moveMode == null ? "corner" : moveMode);
+        }
+    }
+
+    public static final class Result {
+
+        private final Params params;
+        private int runs, labeledRuns, wrongTargets, unsettled;
+        private long totalSettleNanos, maxSettleNanos, totalFrames;
+        private double totalOvershoot;
+        private float maxOvershoot;
+
+        Result(@NonNull Params params) {
+            this.params = params;
+        }
+
+        private void add(long settleNanos, int frames, float overshoot, int expectedTarget, int target) {
+            runs++;
+            if (settleNanos >= MAX_SETTLE_NANOS) {
+                unsettled++;
+            }
+            totalSettleNanos += settleNanos;
+            maxSettleNanos = Math.max(maxSettleNanos, settleNanos);
+            totalFrames += frames;
+            totalOvershoot += overshoot;
+            maxOvershoot = Math.max(maxOvershoot, overshoot);
+            if (expectedTarget >= 0) {
+                labeledRuns++;
+                if (expectedTarget != target) {
+                    wrongTargets++;
+                }
+            }
+        }
+
+        private void merge(@NonNull Result other) {
+            runs += other.runs;
+            labeledRuns += other.labeledRuns;
+            wrongTargets += other.wrongTargets;
+            unsettled += other.unsettled;
+            totalSettleNanos += other.totalSettleNanos;
+            maxSettleNanos = Math.max(maxSettleNanos, other.maxSettleNanos);
+            totalFrames += other.totalFrames;
+            totalOvershoot += other.totalOvershoot;
+            maxOvershoot = Math.max(maxOvershoot, other.maxOvershoot);
+        }
+
+        @NonNull
+        public Params getParams() {
+            return params;
+        }
+
+        public int getRuns() {
+            return runs;
+        }
+
+        /**
+         * Flings which did not settle in 10 seconds
+         */
+        public int getUnsettled() {
+            return unsettled;
+        }
+
+        public float getMeanSettleMillis() {
+            return runs == 0 ? 0 : totalSettleNanos / 1e6f / runs;
+        }
+
+        public float getMaxSettleMillis() {
+            return maxSettleNanos / 1e6f;
+        }
+
+        public float getMeanFrames() {
+            return runs == 0 ? 0 : (float) totalFrames / runs;
+        }
+
+        /**
+         * In pixels, past the target
+         */
+        public float getMeanOvershoot() {
+            return runs == 0 ? 0 : (float) (totalOvershoot / runs);
+        }
+
+        public float getMaxOvershoot() {
+            return maxOvershoot;
+        }
+
+        /**
+         * Over the flings with an expected target
+         */
+        public float getWrongTargetRate() {
+            return labeledRuns == 0 ? 0 : (float) wrongTargets / labeledRuns;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return params
+                    + " -> runs=" + runs
+                    + " settle=" + getMeanSettleMillis() + "ms (max " + getMaxSettleMillis() + "ms)"
+                    + " frames=" + getMeanFrames()
+                    + " overshoot=" + getMeanOvershoot() + "px (max " + maxOvershoot + "px)"
+                    + " wrong=" + getWrongTargetRate()
+                    + " unsettled=" + unsettled;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.mct.touchutils;
+
+import static com.mct.touchutils.TouchUtils.PREDICT_FRICTION;
+import static com.mct.touchutils.TouchUtils.PREDICT_LINEAR;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.mct.touchutils.FlingSimulator.Params;
+import com.mct.touchutils.FlingSimulator.Result;
+import com.mct.touchutils.TouchUtils.FlingMoveToWallListener.MoveMode;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public class FlingSimulatorTest {
+
+    private static final int COUNT = 500;
+    private static final long SEED = 42;
+
+    /**
+     * The frames are aligned on the 8 ms samples of the synthetic flings, the view then only lags
+     * the finger by its move spring
+     */
+    private static FlingSimulator newSimulator() {
+        return new FlingSimulator(new ForkJoinPool(2))
+                .setArea(0, 0, 1080, 2200, 150, 150)
+                .setFrameClock(FlingSimulator.fixedClock(125));
+    }
+
+    @Test
+    public void corner_frictionPrediction_findsTheThrownCorner() {
+        // a stiff move spring: the view is on the finger at the release
+        Params params = new Params().setPredictMode(PREDICT_FRICTION, 3f).setMoveSpring(1_000_000, 1).snapToCorner();
+        Result result = run(params, params);
+        assertEquals(COUNT, result.getRuns());
+        assertEquals(0, result.getUnsettled());
+        assertTrue(result.toString(), result.getWrongTargetRate() < 0.01f);
+    }
+
+    @Test
+    public void wall_frictionPrediction_findsTheThrownWall() {
+        for (MoveMode mode : MoveMode.values()) {
+            Params params = new Params().setPredictMode(PREDICT_FRICTION, 0.5f).snapToWall(mode);
+            Result result = run(params, params);
+            assertEquals(0, result.getUnsettled());
+            assertTrue(mode + " " + result, result.getWrongTargetRate() < 0.05f);
+        }
+    }
+
+    @Test
+    public void wrongFriction_missesTheThrownCorner() {
+        Params thrown = new Params().setPredictMode(PREDICT_FRICTION, 3f).snapToCorner();
+        Params predicted = new Params().setPredictMode(PREDICT_FRICTION, 1f).snapToCorner();
+        float matched = run(thrown, thrown).getWrongTargetRate();
+        float mismatched = run(thrown, predicted).getWrongTargetRate();
+        assertTrue(matched + " vs " + mismatched, mismatched > matched + 0.1f);
+    }
+
+    @Test
+    public void everyParamsRunsEveryFling() {
+        Params friction = new Params().setPredictMode(PREDICT_FRICTION, 2f);
+        Params linear = new Params().setPredictMode(PREDICT_LINEAR, 2f).setSnapSettleTime(300, 1f);
+        FlingSimulator simulator = newSimulator().addSyntheticFlings(friction, COUNT, 2, SEED);
+        List<Result> results = simulator.run(Arrays.asList(friction, linear));
+        assertEquals(2, results.size());
+        for (Result result : results) {
+            assertEquals(COUNT, result.getRuns());
+            assertEquals(0, result.getUnsettled());
+        }
+        assertTrue(results.get(1).toString(), results.get(1).getMaxSettleMillis() < 400);
+    }
+
+    private static Result run(Params thrown, Params predicted) {
+        FlingSimulator simulator = newSimulator().addSyntheticFlings(thrown, COUNT, 0, SEED);
+        return simulator.run(Collections.singletonList(predicted)).get(0);
+    }
+}
@@ -0,0 +1,136 @@
+package com.mct.touchutils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import android.view.MotionEvent;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+
+import com.mct.touchutils.TouchUtils.TouchScaleListener;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+public class FrameMonitorTest extends TouchTestSupport {
+
+    private static final class MonitoredScaleListener extends TouchScaleListener {
+        private final List<String> reports = new ArrayList<>();
+
+        @Override
+        protected int getScaleMode() {
+            return TouchUtils.SCALE_MODE_SPRING;
+        }
+
+        @Override
+        protected boolean isMonitorFrames() {
+            return true;
+        }
+
+        @Override
+        protected void onFrameStats(@NonNull View view, @NonNull FrameStats stats) {
+            reports.add(report(stats));
+        }
+    }
+
+    private static final class MonitoredCornerListener extends CornerListener {
+        private final List<String> reports = new ArrayList<>();
+
+        @Override
+        protected boolean isMonitorFrames() {
+            return true;
+        }
+
+        @Override
+        protected void onFrameStats(@NonNull View view, @NonNull FrameStats stats) {
+            reports.add(report(stats));
+        }
+    }
+
+    private View view;
+
+    @Before
+    public void setUp() {
+        pauseChoreographer();
+        view = newView();
+    }
+
+    @Test
+    public void tick_countsTheMissedVsyncs() {
+        FrameMonitor monitor = new FrameMonitor();
+        // not attached, the budget falls back to 60 Hz
+        monitor.start(view, true);
+        long t = 1_000_000_000L;
+        monitor.tick(t);
+        monitor.tick(t += BUDGET_NANOS);
+        // two vsyncs missed
+        monitor.tick(t += BUDGET_NANOS * 3);
+        monitor.tick(t + BUDGET_NANOS);
+
+        FrameStats stats = monitor.stop();
+        assertFalse(monitor.isRunning());
+        assertEquals(BUDGET_NANOS, stats.getBudgetNanos());
+        assertTrue(stats.isPointerDown());
+        assertEquals(4, stats.getFrameCount());
+        assertEquals(2, stats.getDroppedFrames());
+        assertEquals(BUDGET_NANOS * 3, stats.getWorstFrameNanos());
+    }
+
+    @Test
+    public void restart_dropsTheCurrentMeasure() {
+        FrameMonitor monitor = new FrameMonitor();
+        monitor.start(view, true);
+        monitor.tick(1_000_000_000L);
+        monitor.start(view, false);
+
+        FrameStats stats = monitor.stop();
+        assertFalse(stats.isPointerDown());
+        assertEquals(0, stats.getFrameCount());
+        assertNull(monitor.stop());
+    }
+
+    @Test
+    public void scaleListener_reportsThePressAndTheRelease() {
+        MonitoredScaleListener listener = new MonitoredScaleListener();
+        send(listener, view, MotionEvent.ACTION_DOWN, 0, 50, 50);
+        runFrames(5);
+        assertTrue(listener.reports.isEmpty());
+
+        // the press is interrupted by the release
+        send(listener, view, MotionEvent.ACTION_UP, 80, 50, 50);
+        assertEquals(1, listener.reports.size());
+        assertTrue(listener.reports.get(0), listener.reports.get(0).startsWith("down"));
+
+        runFrames(100);
+        assertEquals(2, listener.reports.size());
+        assertTrue(listener.reports.get(1), listener.reports.get(1).startsWith("up frames="));
+        assertFalse(listener.reports.get(1), listener.reports.get(1).startsWith("up frames=0 "));
+    }
+
+    @Test
+    public void flingListener_reportsTheDragAndTheSnap() {
+        MonitoredCornerListener listener = new MonitoredCornerListener();
+        send(listener, view, MotionEvent.ACTION_DOWN, 0, 300, 600);
+        fling(listener, view, 0);
+        assertEquals(1, listener.reports.size());
+        assertTrue(listener.reports.get(0), listener.reports.get(0).startsWith("down"));
+
+        settle();
+        assertEquals(2, listener.reports.size());
+        assertTrue(listener.reports.get(1), listener.reports.get(1).startsWith("up"));
+    }
+
+    private static String report(FrameStats stats) {
+        // the stats are reused, keep a copy
+        return stats.toString();
+    }
+}
@@ -0,0 +1,92 @@
+package com.mct.touchutils;
+
+import static com.mct.touchutils.TouchUtils.BOT;
+import static com.mct.touchutils.TouchUtils.BOT_LEFT;
+import static com.mct.touchutils.TouchUtils.BOT_RIGHT;
+import static com.mct.touchutils.TouchUtils.LEFT;
+import static com.mct.touchutils.TouchUtils.RIGHT;
+import static com.mct.touchutils.TouchUtils.TOP;
+import static com.mct.touchutils.TouchUtils.TOP_LEFT;
+import static com.mct.touchutils.TouchUtils.TOP_RIGHT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.mct.touchutils.TouchUtils.FlingMoveToWallListener.MoveMode;
+
+import org.junit.Test;
+
+public class GeometryTest {
+
+    private static final int L = 0, T = 0, R = 1080, B = 2200;
+
+    @Test
+    public void calcCorner_nearestCorner() {
+        assertEquals(TOP_LEFT, TouchUtils.calcCorner(100, 200, L, T, R, B));
+        assertEquals(TOP_RIGHT, TouchUtils.calcCorner(900, 200, L, T, R, B));
+        assertEquals(BOT_LEFT, TouchUtils.calcCorner(100, 2000, L, T, R, B));
+        assertEquals(BOT_RIGHT, TouchUtils.calcCorner(900, 2000, L, T, R, B));
+        // outside of the area
+        assertEquals(BOT_RIGHT, TouchUtils.calcCorner(5000, 9000, L, T, R, B));
+    }
+
+    @Test
+    public void calcWall_nearestWall() {
+        assertEquals(LEFT, TouchUtils.calcWall(10, 1100, L, T, R, B));
+        assertEquals(TOP, TouchUtils.calcWall(540, 10, L, T, R, B));
+        assertEquals(RIGHT, TouchUtils.calcWall(1070, 1100, L, T, R, B));
+        assertEquals(BOT, TouchUtils.calcWall(540, 2190, L, T, R, B));
+    }
+
+    @Test
+    public void isNearCornerPoint_withinEightPixels() {
+        assertTrue(TouchUtils.isNearCornerPoint(R - 5, B - 6, L, T, R, B));
+        assertFalse(TouchUtils.isNearCornerPoint(R - 6, B - 6, L, T, R, B));
+        assertFalse(TouchUtils.isNearCornerPoint(540, 1100, L, T, R, B));
+    }
+
+    @Test
+    public void isNearWallPoint_onlyTheLeftAndRightWalls() {
+        assertTrue(TouchUtils.isNearWallPoint(4, 1100, L, T, R, B));
+        assertTrue(TouchUtils.isNearWallPoint(R - 8, 1100, L, T, R, B));
+        assertFalse(TouchUtils.isNearWallPoint(540, 4, L, T, R, B));
+        assertFalse(TouchUtils.isNearWallPoint(540, B - 4, L, T, R, B));
+    }
+
+    @Test
+    public void isNearWallPoint_onlyTheWallsOfTheMode() {
+        assertFalse(TouchUtils.isNearWallPoint(MoveMode.Vertical, 540, 4, L, T, R, B));
+        assertTrue(TouchUtils.isNearWallPoint(MoveMode.Horizontal, 540, 4, L, T, R, B));
+        assertFalse(TouchUtils.isNearWallPoint(MoveMode.Horizontal, 4, 1100, L, T, R, B));
+        assertTrue(TouchUtils.isNearWallPoint(MoveMode.Left, 4, 1100, L, T, R, B));
+        assertFalse(TouchUtils.isNearWallPoint(MoveMode.Right, 4, 1100, L, T, R, B));
+        assertTrue(TouchUtils.isNearWallPoint(MoveMode.Bot, 540, B - 4, L, T, R, B));
+        assertFalse(TouchUtils.isNearWallPoint(MoveMode.Top, 540, B - 4, L, T, R, B));
+        assertTrue(TouchUtils.isNearWallPoint(MoveMode.Nearest, 540, B - 4, L, T, R, B));
+        assertTrue(TouchUtils.isNearWallPoint(MoveMode.Nearest, 4, 1100, L, T, R, B));
+    }
+
+    @Test
+    public void wallDistanceSquared_perpendicular() {
+        assertEquals(100, TouchUtils.getWallDistanceSquared(10, 30, LEFT, L, T, R, B));
+        assertEquals(900, TouchUtils.getWallDistanceSquared(10, 30, TOP, L, T, R, B));
+        assertEquals(1070L * 1070, TouchUtils.getWallDistanceSquared(10, 30, RIGHT, L, T, R, B));
+        assertEquals(2170L * 2170, TouchUtils.getWallDistanceSquared(10, 30, BOT, L, T, R, B));
+    }
+
+    @Test
+    public void cornerDistanceSquared() {
+        assertEquals(3 * 3 + 4 * 4, TouchUtils.getCornerDistanceSquared(R - 3, B - 4, BOT_RIGHT, L, T, R, B));
+        assertEquals(3 * 3 + 4 * 4, TouchUtils.getCornerDistanceSquared(3, 4, TOP_LEFT, L, T, R, B));
+    }
+
+    @Test
+    public void distanceSquared_doesNotOverflow() {
+        // the difference does not fit in an int
+        long d = 3_000_000_000L;
+        assertEquals(d * d, TouchUtils.distanceSquared(1_500_000_000, 0, -1_500_000_000, 0));
+        assertEquals(d * d, TouchUtils.distanceSquared(0, -1_500_000_000, 0, 1_500_000_000));
+        // an overflowed difference would pick the far corner
+        assertEquals(TOP_LEFT, TouchUtils.calcCorner(-1_500_000_000, 0, 0, 0, 1_450_000_000, 10));
+    }
+}
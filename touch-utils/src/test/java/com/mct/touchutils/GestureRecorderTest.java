@@ -0,0 +1,158 @@
+package com.mct.touchutils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import android.view.MotionEvent;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.nio.ByteBuffer;
+
+@RunWith(RobolectricTestRunner.class)
+public class GestureRecorderTest {
+
+    private static final float FIXED_STEP = 1 / GestureRecorder.FIXED_SCALE;
+
+    @Test
+    public void singlePointer_roundTrip() {
+        long downTime = 1_000;
+        MotionEvent down = MotionEvent.obtain(downTime, downTime, MotionEvent.ACTION_DOWN, 10.5f, 20.25f, 0);
+        down.offsetLocation(-4, -8);
+        MotionEvent move = MotionEvent.obtain(downTime, downTime + 8, MotionEvent.ACTION_MOVE, 12f, 18f, 0);
+        move.addBatch(downTime + 12, 15.03f, 10f, 1, 1, 0);
+        move.addBatch(downTime + 16, -30.7f, 2500.4f, 1, 1, 0);
+        // a long gesture, the delta takes more than 5 bytes
+        MotionEvent up = MotionEvent.obtain(downTime, downTime + (1L << 40), MotionEvent.ACTION_UP, 0, 0, 0);
+        MotionEvent[] events = {down, move, up};
+
+        GestureRecorder recorder = new GestureRecorder();
+        for (MotionEvent event : events) {
+            recorder.record(event);
+        }
+        assertRecorded(recorder.toRecording(), events);
+        for (MotionEvent event : events) {
+            event.recycle();
+        }
+    }
+
+    @Test
+    public void twoPointers_roundTrip() {
+        long downTime = 500;
+        MotionEvent.PointerProperties[] properties = {new MotionEvent.PointerProperties(), new MotionEvent.PointerProperties()};
+        properties[0].id = 0;
+        properties[1].id = 3;
+        MotionEvent.PointerCoords[] coords = {new MotionEvent.PointerCoords(), new MotionEvent.PointerCoords()};
+        coords[0].x = 100;
+        coords[0].y = 200;
+        coords[1].x = 300.5f;
+        coords[1].y = 50;
+        int pointerDown = MotionEvent.ACTION_POINTER_DOWN | (1 << MotionEvent.ACTION_POINTER_INDEX_SHIFT);
+        MotionEvent second = MotionEvent.obtain(downTime, downTime + 20, pointerDown, 2, properties, coords,
+                0, 0, 1, 1, 0, 0, 0, 0);
+        MotionEvent move = MotionEvent.obtain(downTime, downTime + 28, MotionEvent.ACTION_MOVE, 2, properties, coords,
+                0, 0, 1, 1, 0, 0, 0, 0);
+        coords[0].x = 90;
+        coords[1].y = 75.75f;
+        move.addBatch(downTime + 36, coords, 0);
+        MotionEvent[] events = {second, move};
+
+        GestureRecorder recorder = new GestureRecorder();
+        for (MotionEvent event : events) {
+            recorder.record(event);
+        }
+        assertRecorded(recorder.toRecording(), events);
+        for (MotionEvent event : events) {
+            event.recycle();
+        }
+    }
+
+    @Test
+    public void reset_keepsOnlyTheHeader() {
+        GestureRecorder recorder = new GestureRecorder();
+        int header = recorder.size();
+        MotionEvent event = MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, 1, 2, 0);
+        recorder.record(event);
+        event.recycle();
+        assertTrue(recorder.size() > header);
+        recorder.reset();
+        assertEquals(header, recorder.size());
+        assertFalse(recorder.toRecording().newReader().next());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void notARecording_throws() {
+        new GestureRecording(ByteBuffer.wrap(new byte[]{'T', 'U', 'X', 'X', 1}));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void otherVersion_throws() {
+        byte[] data = new GestureRecorder().toByteArray();
+        data[data.length - 1]++;
+        new GestureRecording(ByteBuffer.wrap(data));
+    }
+
+    @Test
+    public void truncatedRecording_throws() {
+        GestureRecorder recorder = new GestureRecorder();
+        MotionEvent move = MotionEvent.obtain(0, 8, MotionEvent.ACTION_MOVE, 100, 200, 0);
+        move.addBatch(4, 90, 180, 1, 1, 0);
+        recorder.record(move);
+        move.recycle();
+        byte[] data = recorder.toByteArray();
+        // every cut inside the event is reported, never read past the end
+        int header = new GestureRecorder().size();
+        for (int length = header + 1; length < data.length; length++) {
+            GestureRecording.Reader reader = new GestureRecording(ByteBuffer.wrap(data, 0, length).slice()).newReader();
+            try {
+                reader.next();
+                fail("truncated at " + length);
+            } catch (IllegalStateException expected) {
+                // expected
+            }
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void corruptPointerCount_throws() {
+        byte[] header = new GestureRecorder().toByteArray();
+        ByteBuffer data = ByteBuffer.allocate(header.length + 3);
+        // action, a pointer count of 0x7f and a single sample
+        data.put(header).put((byte) MotionEvent.ACTION_MOVE).put((byte) 0x7f).put((byte) 1);
+        data.flip();
+        new GestureRecording(data).newReader().next();
+    }
+
+    private static void assertRecorded(GestureRecording recording, MotionEvent[] events) {
+        // two readers do not share their position
+        GestureRecording.Reader other = recording.newReader();
+        assertTrue(other.next());
+        GestureRecording.Reader reader = recording.newReader();
+        for (MotionEvent event : events) {
+            assertTrue(reader.next());
+            assertEquals(event.getAction(), reader.getAction());
+            assertEquals(event.getPointerCount(), reader.getPointerCount());
+            assertEquals(event.getHistorySize() + 1, reader.getSampleCount());
+            assertEquals(event.getDownTime(), reader.getDownTime());
+            assertEquals(event.getEventTime(), reader.getEventTime());
+            assertEquals(event.getRawX() - event.getX(), reader.getRawOffsetX(), FIXED_STEP);
+            assertEquals(event.getRawY() - event.getY(), reader.getRawOffsetY(), FIXED_STEP);
+            for (int p = 0; p < event.getPointerCount(); p++) {
+                assertEquals(event.getPointerId(p), reader.getPointerId(p));
+                for (int h = 0; h < event.getHistorySize(); h++) {
+                    assertEquals(event.getHistoricalEventTime(h), reader.getSampleTime(h));
+                    assertEquals(event.getHistoricalX(p, h), reader.getX(h, p), FIXED_STEP);
+                    assertEquals(event.getHistoricalY(p, h), reader.getY(h, p), FIXED_STEP);
+                }
+                int current = event.getHistorySize();
+                assertEquals(event.getX(p), reader.getX(current, p), FIXED_STEP);
+                assertEquals(event.getY(p), reader.getY(current, p), FIXED_STEP);
+            }
+        }
+        assertFalse(reader.next());
+    }
+}
@@ -0,0 +1,194 @@
+package com.mct.touchutils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.app.Activity;
+import android.content.Context;
+import android.graphics.Paint;
+import android.graphics.Point;
+import android.view.MotionEvent;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.mct.touchutils.TouchUtils.BaseTouchListener;
+import com.mct.touchutils.TouchUtils.TouchScaleListener;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+public class HardwareLayerTest extends TouchTestSupport {
+
+    private static final class LayerView extends View {
+        private final List<Integer> layerTypes = new ArrayList<>();
+
+        LayerView(Context context) {
+            super(context);
+        }
+
+        @Override
+        public void setLayerType(int layerType, @Nullable Paint paint) {
+            layerTypes.add(layerType);
+            super.setLayerType(layerType, paint);
+        }
+    }
+
+    private static final class LayerCornerListener extends CornerListener {
+        private final List<Integer> movedLayerTypes = new ArrayList<>();
+
+        @Override
+        protected boolean isUseHardwareLayer() {
+            return true;
+        }
+
+        @Override
+        protected void onMovedToCorner(@NonNull View view, int corner, Point cornerPoint) {
+            movedLayerTypes.add(view.getLayerType());
+        }
+    }
+
+    private static final class LayerScaleListener extends TouchScaleListener {
+        private final int scaleMode;
+
+        LayerScaleListener(int scaleMode) {
+            this.scaleMode = scaleMode;
+        }
+
+        @Override
+        protected int getScaleMode() {
+            return scaleMode;
+        }
+
+        @Override
+        protected int getAllowAutoRelease() {
+            return 0;
+        }
+
+        @Override
+        protected boolean isUseHardwareLayer() {
+            return true;
+        }
+    }
+
+    private FrameLayout root;
+    private LayerView view;
+
+    @Before
+    public void setUp() {
+        pauseChoreographer();
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        root = new FrameLayout(activity);
+        view = new LayerView(activity);
+        root.addView(view, new FrameLayout.LayoutParams(100, 100));
+        activity.setContentView(root);
+        runFrames(1);
+    }
+
+    @Test
+    public void fling_restoresTheLayerWhenMovedToTheCorner() {
+        LayerCornerListener listener = new LayerCornerListener();
+        send(listener, MotionEvent.ACTION_DOWN, 0, 300, 600);
+        assertEquals(View.LAYER_TYPE_HARDWARE, view.getLayerType());
+        fling(listener, view, 0);
+        runFrames(5);
+        assertEquals(View.LAYER_TYPE_HARDWARE, view.getLayerType());
+
+        settle();
+        assertEquals(1, listener.movedLayerTypes.size());
+        assertEquals(View.LAYER_TYPE_NONE, (int) listener.movedLayerTypes.get(0));
+        assertEquals(View.LAYER_TYPE_NONE, view.getLayerType());
+    }
+
+    @Test
+    public void interruptedSnap_keepsTheLayer() {
+        LayerCornerListener listener = new LayerCornerListener();
+        send(listener, MotionEvent.ACTION_DOWN, 0, 300, 600);
+        fling(listener, view, 0);
+        runFrames(5);
+
+        // caught while it snaps, no toggle of the layer
+        send(listener, MotionEvent.ACTION_DOWN, 200, 300, 600);
+        send(listener, MotionEvent.ACTION_UP, 210, 300, 600);
+        settle();
+        assertEquals(layerTypes(View.LAYER_TYPE_HARDWARE, View.LAYER_TYPE_NONE), view.layerTypes);
+    }
+
+    @Test
+    public void previousLayerType_isGivenBack() {
+        view.setLayerType(View.LAYER_TYPE_SOFTWARE, null);
+        LayerCornerListener listener = new LayerCornerListener();
+        send(listener, MotionEvent.ACTION_DOWN, 0, 300, 600);
+        assertEquals(View.LAYER_TYPE_HARDWARE, view.getLayerType());
+        fling(listener, view, 0);
+        settle();
+        assertEquals(View.LAYER_TYPE_SOFTWARE, view.getLayerType());
+    }
+
+    @Test
+    public void disabled_leavesTheLayer() {
+        TouchScaleListener listener = new TouchScaleListener();
+        send(listener, MotionEvent.ACTION_DOWN, 0, 50, 50);
+        send(listener, MotionEvent.ACTION_UP, 300, 50, 50);
+        runFrames(100);
+        assertTrue(view.layerTypes.isEmpty());
+    }
+
+    @Test
+    public void scaleSpring_keepsTheLayerUntilTheReleaseEnds() {
+        LayerScaleListener listener = new LayerScaleListener(TouchUtils.SCALE_MODE_SPRING);
+        send(listener, MotionEvent.ACTION_DOWN, 0, 50, 50);
+        // the press settles while pressed
+        runFrames(100);
+        assertEquals(View.LAYER_TYPE_HARDWARE, view.getLayerType());
+
+        send(listener, MotionEvent.ACTION_UP, 1600, 50, 50);
+        runFrames(5);
+        assertEquals(View.LAYER_TYPE_HARDWARE, view.getLayerType());
+        runFrames(100);
+        assertEquals(View.LAYER_TYPE_NONE, view.getLayerType());
+    }
+
+    @Test
+    public void scaleAnimation_restoresTheLayerWhenTheReleaseEnds() {
+        LayerScaleListener listener = new LayerScaleListener(TouchUtils.SCALE_MODE_ANIMATION);
+        send(listener, MotionEvent.ACTION_DOWN, 0, 50, 50);
+        runFrames(100);
+        assertEquals(View.LAYER_TYPE_HARDWARE, view.getLayerType());
+
+        send(listener, MotionEvent.ACTION_UP, 1600, 50, 50);
+        runFrames(100);
+        assertEquals(View.LAYER_TYPE_NONE, view.getLayerType());
+    }
+
+    @Test
+    public void detach_restoresTheLayer() {
+        LayerScaleListener listener = new LayerScaleListener(TouchUtils.SCALE_MODE_SPRING);
+        send(listener, MotionEvent.ACTION_DOWN, 0, 50, 50);
+        assertEquals(View.LAYER_TYPE_HARDWARE, view.getLayerType());
+
+        root.removeView(view);
+        assertEquals(View.LAYER_TYPE_NONE, view.getLayerType());
+    }
+
+    private void send(BaseTouchListener listener, int action, long eventTime, float x, float y) {
+        send(listener, view, action, eventTime, x, y);
+    }
+
+    private static List<Integer> layerTypes(Integer... layerTypes) {
+        List<Integer> list = new ArrayList<>();
+        for (Integer layerType : layerTypes) {
+            list.add(layerType);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,341 @@
+package com.mct.touchutils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.app.Activity;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.Display;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.WindowManager;
+import android.widget.FrameLayout;
+
+import androidx.dynamicanimation.animation.DynamicAnimation;
+import androidx.dynamicanimation.animation.FloatPropertyCompat;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowSystemClock;
+
+import java.time.Duration;
+
+@RunWith(RobolectricTestRunner.class)
+public class LoadSheddingTest extends TouchTestSupport {
+
+    private static final long SLOW_WRITE_MILLIS = 20;
+
+    /**
+     * Each write takes the cost on the clock of the looper
+     */
+    private static final class SlowProperty extends FloatPropertyCompat<View> {
+        private final FloatPropertyCompat<View> property;
+        private long costMillis;
+        private int writes;
+
+        SlowProperty(FloatPropertyCompat<View> property) {
+            super("slow");
+            this.property = property;
+        }
+
+        @Override
+        public float getValue(View object) {
+            return property.getValue(object);
+        }
+
+        @Override
+        public void setValue(View object, float value) {
+            writes++;
+            property.setValue(object, value);
+            if (costMillis > 0) {
+                ShadowSystemClock.advanceBy(Duration.ofMillis(costMillis));
+            }
+        }
+    }
+
+    /**
+     * Each commit of the window takes the cost on the clock of the looper
+     */
+    private static final class SlowWindowManager implements WindowManager {
+        private long costMillis;
+        private int updates;
+
+        @Override
+        public Display getDefaultDisplay() {
+            return null;
+        }
+
+        @Override
+        public void removeViewImmediate(View view) {
+        }
+
+        @Override
+        public void addView(View view, ViewGroup.LayoutParams params) {
+        }
+
+        @Override
+        public void updateViewLayout(View view, ViewGroup.LayoutParams params) {
+            updates++;
+            ShadowSystemClock.advanceBy(Duration.ofMillis(costMillis));
+        }
+
+        @Override
+        public void removeView(View view) {
+        }
+    }
+
+    private static class SheddingListener extends CornerListener {
+        private final SlowProperty propX;
+        private final SlowProperty propY;
+
+        SheddingListener() {
+            this(DynamicAnimation.X, DynamicAnimation.Y);
+        }
+
+        SheddingListener(FloatPropertyCompat<View> propX, FloatPropertyCompat<View> propY) {
+            this.propX = new SlowProperty(propX);
+            this.propY = new SlowProperty(propY);
+        }
+
+        @Override
+        protected boolean isLowLatencyDrag() {
+            return true;
+        }
+
+        @Override
+        protected int getPredictAheadMillis() {
+            return 0;
+        }
+
+        @Override
+        protected boolean isLoadShedding() {
+            return true;
+        }
+
+        @Override
+        protected FloatPropertyCompat<View> getPropX() {
+            return propX;
+        }
+
+        @Override
+        protected FloatPropertyCompat<View> getPropY() {
+            return propY;
+        }
+
+        void setWriteCost(long costMillis) {
+            propX.costMillis = costMillis;
+            propY.costMillis = costMillis;
+        }
+    }
+
+    private FrameLayout root;
+    private View view;
+    private SheddingListener listener;
+    private long eventTime;
+
+    @Before
+    public void setUp() {
+        pauseChoreographer();
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        root = new FrameLayout(activity);
+        view = new View(activity);
+        root.addView(view, new FrameLayout.LayoutParams(100, 100));
+        activity.setContentView(root);
+        runFrames(1);
+        listener = new SheddingListener();
+    }
+
+    @After
+    public void tearDown() {
+        // the springs settle at full speed
+        listener.setWriteCost(0);
+    }
+
+    @Test
+    public void writeCost_isSmoothed() {
+        listener.setWriteCost(10);
+        send(MotionEvent.ACTION_DOWN, 300, 600);
+        // a move writes x then y, one sample for the pair
+        send(MotionEvent.ACTION_MOVE, 310, 600);
+        assertEquals(4_000_000, listener.getWriteCostNanos(), 1_000);
+
+        listener.setWriteCost(0);
+        pause();
+        send(MotionEvent.ACTION_MOVE, 320, 600);
+        assertEquals(3_200_000, listener.getWriteCostNanos(), 1_000);
+    }
+
+    @Test
+    public void cheapWrites_areAllApplied() {
+        send(MotionEvent.ACTION_DOWN, 300, 600);
+        for (int i = 1; i <= 10; i++) {
+            send(MotionEvent.ACTION_MOVE, 300 + i, 600);
+            assertEquals(i, view.getX(), 0);
+        }
+        assertEquals(10, listener.propX.writes);
+    }
+
+    @Test
+    public void slowWrites_shedTheWritesTooClose() {
+        warmUp();
+        int writes = listener.propX.writes;
+        send(MotionEvent.ACTION_MOVE, 400, 600);
+        assertEquals(writes + 1, listener.propX.writes);
+        assertEquals(100, view.getX(), 0);
+
+        // less than twice the cost after the previous write
+        send(MotionEvent.ACTION_MOVE, 450, 600);
+        assertEquals(writes + 1, listener.propX.writes);
+        assertEquals(100, view.getX(), 0);
+
+        // far enough from it
+        pause();
+        send(MotionEvent.ACTION_MOVE, 460, 600);
+        assertEquals(writes + 2, listener.propX.writes);
+        assertEquals(160, view.getX(), 0);
+    }
+
+    @Test
+    public void shedWrite_isFlushedOnANextFrame() {
+        warmUp();
+        send(MotionEvent.ACTION_MOVE, 400, 600);
+        send(MotionEvent.ACTION_MOVE, 450, 600);
+        assertEquals(100, view.getX(), 0);
+
+        // still too soon on the first frame, the flush is posted again
+        runFrames(1);
+        assertEquals(100, view.getX(), 0);
+        runFrames(5);
+        assertEquals(150, view.getX(), 0);
+    }
+
+    @Test
+    public void shedWrite_isFlushedOnRelease() {
+        warmUp();
+        send(MotionEvent.ACTION_MOVE, 400, 600);
+        send(MotionEvent.ACTION_MOVE, 450, 600);
+        assertEquals(100, view.getX(), 0);
+
+        send(MotionEvent.ACTION_UP, 450, 600);
+        assertEquals(150, view.getX(), 0);
+    }
+
+    @Test
+    public void shedWrite_isFlushedOnDetach() {
+        warmUp();
+        send(MotionEvent.ACTION_MOVE, 400, 600);
+        send(MotionEvent.ACTION_MOVE, 450, 600);
+        assertEquals(100, view.getX(), 0);
+
+        root.removeView(view);
+        assertEquals(150, view.getX(), 0);
+    }
+
+    @Test
+    public void cheapWritesAgain_applyEveryWrite() {
+        warmUp();
+        listener.setWriteCost(0);
+        for (int i = 0; i < 10; i++) {
+            pause();
+            send(MotionEvent.ACTION_MOVE, 400 + i, 600);
+        }
+        assertTrue(listener.getWriteCostNanos() < BUDGET_NANOS / 2);
+
+        int writes = listener.propX.writes;
+        send(MotionEvent.ACTION_MOVE, 420, 600);
+        send(MotionEvent.ACTION_MOVE, 430, 600);
+        assertEquals(writes + 2, listener.propX.writes);
+        assertEquals(130, view.getX(), 0);
+    }
+
+    @Test
+    public void heavyLoad_shortensTheSnap() {
+        warmUp();
+        assertTrue(listener.getWriteCostNanos() > BUDGET_NANOS);
+        pause();
+        send(MotionEvent.ACTION_MOVE, 420, 700);
+        send(MotionEvent.ACTION_UP, 420, 700);
+        assertTrue(listener.isAnimationRunning());
+
+        long start = SystemClock.uptimeMillis();
+        while (listener.isAnimationRunning()) {
+            runFrames(1);
+        }
+        long settleMillis = SystemClock.uptimeMillis() - start;
+        // the default 150 / 0.6 springs take several times longer
+        assertTrue("settled in " + settleMillis, settleMillis < 300);
+        assertFalse(listener.isAnimationRunning());
+    }
+
+    @Test
+    public void windowPosition_isWrittenOrShedAsAWhole() {
+        SlowWindowManager windowManager = new SlowWindowManager();
+        WindowManager.LayoutParams params = new WindowManager.LayoutParams();
+        WindowPositionProperties properties = new WindowPositionProperties(windowManager, params);
+        listener = new SheddingListener(properties.getPropX(), properties.getPropY());
+        windowManager.costMillis = SLOW_WRITE_MILLIS;
+        send(MotionEvent.ACTION_DOWN, 300, 600);
+        for (int i = 1; i <= 10; i++) {
+            pause();
+            send(MotionEvent.ACTION_MOVE, 300 + i, 600 + i);
+        }
+        // the x write only schedules, the commit of the y write pays for the position
+        assertTrue(listener.getWriteCostNanos() > BUDGET_NANOS);
+
+        pause();
+        int updates = windowManager.updates;
+        send(MotionEvent.ACTION_MOVE, 400, 700);
+        assertEquals(updates + 1, windowManager.updates);
+        assertEquals(100, params.x);
+        assertEquals(100, params.y);
+
+        // neither axis is written alone
+        send(MotionEvent.ACTION_MOVE, 450, 750);
+        assertEquals(updates + 1, windowManager.updates);
+        assertEquals(100, params.x);
+        assertEquals(100, params.y);
+
+        // the shed position lands with a single commit
+        pause();
+        runFrames(1);
+        assertEquals(updates + 2, windowManager.updates);
+        assertEquals(150, params.x);
+        assertEquals(150, params.y);
+        windowManager.costMillis = 0;
+        send(MotionEvent.ACTION_CANCEL, 450, 750);
+        // the snap lands in the corner
+        settle();
+        assertFalse(listener.isAnimationRunning());
+        assertEquals(0, params.x);
+        assertEquals(0, params.y);
+    }
+
+    /**
+     * Slow writes spaced enough to be applied, until their cost is above a frame
+     */
+    private void warmUp() {
+        listener.setWriteCost(SLOW_WRITE_MILLIS);
+        send(MotionEvent.ACTION_DOWN, 300, 600);
+        for (int i = 1; i <= 10; i++) {
+            pause();
+            send(MotionEvent.ACTION_MOVE, 300 + i, 600);
+        }
+        assertTrue(listener.getWriteCostNanos() > BUDGET_NANOS);
+        pause();
+    }
+
+    private static void pause() {
+        ShadowSystemClock.advanceBy(Duration.ofMillis(SLOW_WRITE_MILLIS * 5));
+    }
+
+    private void send(int action, float x, float y) {
+        eventTime += 8;
+        send(listener, view, action, eventTime, x, y);
+    }
+}
@@ -0,0 +1,98 @@
+package com.mct.touchutils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.view.MotionEvent;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class LowLatencyDragTest extends TouchTestSupport {
+
+    private static final class LowLatencyListener extends CornerListener {
+        private final int predictAheadMillis;
+
+        LowLatencyListener(int predictAheadMillis) {
+            this.predictAheadMillis = predictAheadMillis;
+        }
+
+        @Override
+        protected boolean isLowLatencyDrag() {
+            return true;
+        }
+
+        @Override
+        protected int getPredictAheadMillis() {
+            return predictAheadMillis;
+        }
+
+        @Override
+        protected int getVelocityStrategy() {
+            return TouchUtils.VELOCITY_LSQ2;
+        }
+    }
+
+    private View view;
+
+    @Before
+    public void setUp() {
+        view = newView();
+    }
+
+    @Test
+    public void move_writesThePositionWithoutTheSpring() {
+        LowLatencyListener listener = new LowLatencyListener(0);
+        send(listener, MotionEvent.ACTION_DOWN, 0, 300, 600);
+        send(listener, MotionEvent.ACTION_MOVE, 10, 400, 650);
+
+        // no frame ran, the view is already under the finger
+        assertEquals(100, view.getX(), 0);
+        assertEquals(50, view.getY(), 0);
+    }
+
+    @Test
+    public void move_predictsAheadWithTheVelocity() {
+        LowLatencyListener listener = new LowLatencyListener(8);
+        send(listener, MotionEvent.ACTION_DOWN, 0, 300, 600);
+        for (int i = 1; i <= 5; i++) {
+            // 1000 px per second to the right
+            send(listener, MotionEvent.ACTION_MOVE, i * 10, 300 + i * 10, 600);
+        }
+
+        assertEquals(50 + 8, view.getX(), 0.5f);
+        assertEquals(0, view.getY(), 0.5f);
+    }
+
+    @Test
+    public void release_springsStartWithTheReleaseVelocity() {
+        LowLatencyListener listener = new LowLatencyListener(0);
+        send(listener, MotionEvent.ACTION_DOWN, 0, 300, 600);
+        for (int i = 1; i <= 5; i++) {
+            send(listener, MotionEvent.ACTION_MOVE, i * 10, 300 + i * 10, 600 + i * 20);
+        }
+        send(listener, MotionEvent.ACTION_UP, 50, 350, 700);
+
+        // no jump at the release
+        assertEquals(50, view.getX(), 0);
+        assertEquals(100, view.getY(), 0);
+        assertTrue(listener.isAnimationRunning());
+
+        // the snap goes back to the top left corner, the first frames keep the finger direction
+        pauseChoreographer();
+        runFrames(1);
+        assertTrue("x " + view.getX(), view.getX() > 50);
+        assertTrue("y " + view.getY(), view.getY() > 100);
+        settle();
+        assertEquals(0, view.getX(), 1);
+        assertEquals(0, view.getY(), 1);
+    }
+
+    private void send(LowLatencyListener listener, int action, long eventTime, float x, float y) {
+        send(listener, view, action, eventTime, x, y);
+    }
+}
@@ -0,0 +1,124 @@
+package com.mct.touchutils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import android.app.Activity;
+import android.graphics.Point;
+import android.graphics.Rect;
+import android.view.MotionEvent;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import androidx.annotation.NonNull;
+import androidx.dynamicanimation.animation.DynamicAnimation;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+public class OutParameterTest extends TouchTestSupport {
+
+    private static final class PointListener extends CornerListener {
+        private final List<Point> predictPositions = new ArrayList<>();
+        private final List<Point> cornerPoints = new ArrayList<>();
+
+        @Override
+        protected void handleFling(View view, Point predictPosition) {
+            predictPositions.add(predictPosition);
+            super.handleFling(view, predictPosition);
+        }
+
+        @Override
+        protected void onStartMoveToCorner(@NonNull View view, int corner, @NonNull Point cornerPoint) {
+            cornerPoints.add(cornerPoint);
+        }
+    }
+
+    @Test
+    public void area_isCopiedIntoTheRect() {
+        PointListener listener = new PointListener();
+        View view = newView();
+        send(listener, view, MotionEvent.ACTION_DOWN, 0, 300, 600);
+
+        Rect out = new Rect();
+        assertSame(out, listener.getArea(out));
+        assertEquals(new Rect(0, 0, 1080, 2200), out);
+        assertSame(out, listener.getMoveArea(out));
+        assertEquals(new Rect(0, 0, 980, 2100), out);
+        // the rect is a copy
+        out.set(1, 2, 3, 4);
+        assertEquals(new Rect(0, 0, 980, 2100), listener.getMoveArea());
+        send(listener, view, MotionEvent.ACTION_UP, 10, 300, 600);
+    }
+
+    @Test
+    public void release_reusesThePredictPositionAndTheCornerPoint() {
+        PointListener listener = new PointListener();
+        View view = newView();
+        for (long downTime = 0; downTime <= 10000; downTime += 5000) {
+            send(listener, view, MotionEvent.ACTION_DOWN, downTime, 300, 600);
+            fling(listener, view, downTime);
+            settle();
+        }
+
+        assertEquals(3, listener.predictPositions.size());
+        assertSame(listener.predictPositions.get(0), listener.predictPositions.get(1));
+        assertSame(listener.predictPositions.get(1), listener.predictPositions.get(2));
+        // the steady state writes the same corner point
+        assertEquals(3, listener.cornerPoints.size());
+        assertSame(listener.cornerPoints.get(0), listener.cornerPoints.get(1));
+        assertSame(listener.cornerPoints.get(1), listener.cornerPoints.get(2));
+    }
+
+    @Test
+    public void corner_isWrittenIntoThePoint() {
+        Rect area = new Rect(0, 0, 980, 2100);
+        Point out = new Point();
+        assertSame(out, TouchUtils.getCorner(area, TouchUtils.BOT_LEFT, out));
+        assertEquals(new Point(0, 2100), out);
+        assertEquals(TouchUtils.getCorner(area, TouchUtils.TOP_RIGHT),
+                TouchUtils.getCorner(area, TouchUtils.TOP_RIGHT, out));
+    }
+
+    @Test
+    public void center_isWrittenIntoThePoint() {
+        View view = newView();
+        view.setX(40);
+        view.setY(60);
+        Point out = new Point();
+        assertSame(out, TouchUtils.getCenter(view, DynamicAnimation.X, DynamicAnimation.Y, out));
+        assertEquals(new Point(90, 110), out);
+        // out may be the position
+        out.set(10, 20);
+        assertSame(out, TouchUtils.getCenter(view, out, out));
+        assertEquals(new Point(60, 70), out);
+    }
+
+    @Test
+    public void locationOnScreen_isWrittenIntoThePoint() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        FrameLayout root = new FrameLayout(activity);
+        View view = new View(activity);
+        FrameLayout.LayoutParams params = new FrameLayout.LayoutParams(100, 100);
+        params.leftMargin = 30;
+        params.topMargin = 50;
+        root.addView(view, params);
+        activity.setContentView(root);
+        ShadowLooper.idleMainLooper();
+
+        int[] location = new int[2];
+        Point out = new Point();
+        assertSame(out, TouchUtils.getLocationOnScreen(view, location, out));
+        assertEquals(TouchUtils.getLocationOnScreen(view, location), out);
+        assertEquals(location[0], out.x);
+        assertEquals(location[1], out.y);
+    }
+
+}
@@ -0,0 +1,98 @@
+package com.mct.touchutils;
+
+import static org.junit.Assert.assertEquals;
+
+import android.app.Activity;
+import android.view.MotionEvent;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import com.mct.touchutils.TouchUtils.BaseTouchListener;
+import com.mct.touchutils.TouchUtils.CompositeTouchListener;
+import com.mct.touchutils.TouchUtils.TransformTouchListener;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.concurrent.TimeUnit;
+
+@RunWith(RobolectricTestRunner.class)
+public class PrewarmTest extends TouchTestSupport {
+
+    private Activity activity;
+    private FrameLayout root;
+    private View view;
+
+    @Before
+    public void setUp() {
+        activity = Robolectric.buildActivity(Activity.class).setup().get();
+        root = new FrameLayout(activity);
+        view = new View(activity);
+    }
+
+    @Test
+    public void withoutPrewarm_theFirstTouchInits() {
+        attach();
+        CornerListener listener = new CornerListener();
+        TouchUtils.setTouchListener(view, listener);
+        idle();
+
+        tap(listener);
+        tap(listener);
+        assertEquals(1, listener.getTouchInitCount());
+        assertEquals(2, listener.getDownCount());
+    }
+
+    @Test
+    public void prewarm_laidOutView_initsBeforeTheFirstTouch() {
+        attach();
+        CornerListener listener = new CornerListener();
+        TouchUtils.setTouchListener(view, listener, true);
+        idle();
+
+        tap(listener);
+        assertEquals(0, listener.getTouchInitCount());
+    }
+
+    @Test
+    public void prewarm_beforeTheLayout_initsAfterIt() {
+        CornerListener listener = new CornerListener();
+        TouchUtils.setTouchListener(view, listener, true);
+        idle();
+        attach();
+
+        tap(listener);
+        assertEquals(0, listener.getTouchInitCount());
+    }
+
+    @Test
+    public void prewarm_composite_initsItsStages() {
+        attach();
+        CornerListener fling = new CornerListener();
+        TransformTouchListener transform = new TransformTouchListener();
+        TouchUtils.setTouchListener(view, new CompositeTouchListener().addStage(fling).addStage(transform), true);
+        idle();
+
+        assertEquals(0, fling.getTouchInitCount());
+        assertEquals(0, transform.getTouchInitCount());
+    }
+
+    private void attach() {
+        root.addView(view, new FrameLayout.LayoutParams(100, 100));
+        activity.setContentView(root);
+        idle();
+    }
+
+    private void tap(BaseTouchListener listener) {
+        send(listener, view, MotionEvent.ACTION_DOWN, 0, 50, 50);
+        send(listener, view, MotionEvent.ACTION_UP, 0, 50, 50);
+    }
+
+    private static void idle() {
+        ShadowLooper.idleMainLooper(100, TimeUnit.MILLISECONDS);
+    }
+}
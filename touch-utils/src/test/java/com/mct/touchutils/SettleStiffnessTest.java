@@ -0,0 +1,96 @@
+package com.mct.touchutils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class SettleStiffnessTest {
+
+    // settle thresholds of SpringAnimation in pixels
+    private static final float SETTLE_THRESHOLD = 0.75f;
+    private static final float SETTLE_VELOCITY_THRESHOLD = SETTLE_THRESHOLD * 1000f / 16f;
+
+    private static final float[] DISPLACEMENTS = {-800, -200, -30, 5, 120, 900};
+    private static final float[] VELOCITIES = {-6000, -500, 0, 800, 5000};
+    private static final float[] DAMPING_RATIOS = {0.3f, 0.5f, 0.75f, 1f, 1.5f};
+    private static final int[] SETTLE_MILLIS = {150, 300, 600};
+
+    @Test
+    public void staysSettledFromTheSettleTime() {
+        forEachCase((displacement, velocity, dampingRatio, settleMillis) -> {
+            float stiffness = TouchUtils.getSettleStiffness(displacement, velocity, dampingRatio, settleMillis);
+            int lastUnsettled = getLastUnsettledMillis(displacement, velocity, stiffness, dampingRatio, settleMillis + 3000);
+            assertTrue(describe(displacement, velocity, dampingRatio, settleMillis) + " last unsettled " + lastUnsettled,
+                    lastUnsettled <= settleMillis);
+        });
+    }
+
+    @Test
+    public void isNotMuchStifferThanNeeded() {
+        forEachCase((displacement, velocity, dampingRatio, settleMillis) -> {
+            if (Math.abs(displacement) < 50) {
+                // settles with the softest spring
+                return;
+            }
+            float stiffness = TouchUtils.getSettleStiffness(displacement, velocity, dampingRatio, settleMillis);
+            int lastUnsettled = getLastUnsettledMillis(displacement, velocity, stiffness, dampingRatio, settleMillis + 3000);
+            assertTrue(describe(displacement, velocity, dampingRatio, settleMillis) + " last unsettled " + lastUnsettled,
+                    lastUnsettled >= settleMillis / 2);
+        });
+    }
+
+    @Test
+    public void stifferSpringsStaySettled() {
+        // the bisection needs the settle check to be monotonic in the stiffness
+        forEachCase((displacement, velocity, dampingRatio, settleMillis) -> {
+            float stiffness = TouchUtils.getSettleStiffness(displacement, velocity, dampingRatio, settleMillis);
+            for (float factor = 1.25f; factor < 20; factor *= 1.5f) {
+                int lastUnsettled = getLastUnsettledMillis(displacement, velocity, stiffness * factor, dampingRatio, settleMillis + 1000);
+                assertTrue(describe(displacement, velocity, dampingRatio, settleMillis) + " x" + factor,
+                        lastUnsettled <= settleMillis);
+            }
+        });
+    }
+
+    @Test
+    public void unreachable_returnsTheMaxStiffness() {
+        // max natural frequency of 300
+        assertEquals(300 * 300, TouchUtils.getSettleStiffness(100_000, 0, 1, 10), 0);
+    }
+
+    private static int getLastUnsettledMillis(float displacement, float velocity, float stiffness,
+                                              float dampingRatio, int durationMillis) {
+        float[] values = {displacement};
+        float[] velocities = {velocity};
+        int lastUnsettled = 0;
+        for (int t = 1; t <= durationMillis; t++) {
+            SpringScheduler.step(values, velocities, 0, 0, stiffness, dampingRatio, 0.001);
+            if (Math.abs(values[0]) >= SETTLE_THRESHOLD || Math.abs(velocities[0]) >= SETTLE_VELOCITY_THRESHOLD) {
+                lastUnsettled = t;
+            }
+        }
+        return lastUnsettled;
+    }
+
+    private static String describe(float displacement, float velocity, float dampingRatio, int settleMillis) {
+        return "displacement=" + displacement + " velocity=" + velocity
+                + " dampingRatio=" + dampingRatio + " settle=" + settleMillis + "ms";
+    }
+
+    private static void forEachCase(Case test) {
+        for (float displacement : DISPLACEMENTS) {
+            for (float velocity : VELOCITIES) {
+                for (float dampingRatio : DAMPING_RATIOS) {
+                    for (int settleMillis : SETTLE_MILLIS) {
+                        test.run(displacement, velocity, dampingRatio, settleMillis);
+                    }
+                }
+            }
+        }
+    }
+
+    private interface Case {
+        void run(float displacement, float velocity, float dampingRatio, int settleMillis);
+    }
+}
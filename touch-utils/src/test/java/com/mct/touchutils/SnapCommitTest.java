@@ -0,0 +1,106 @@
+package com.mct.touchutils;
+
+import static com.mct.touchutils.TouchUtils.BOT_RIGHT;
+import static com.mct.touchutils.TouchUtils.TOP_LEFT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.graphics.Point;
+import android.view.MotionEvent;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+
+import com.mct.touchutils.TouchUtils.FlingMoveToCornerListener;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@RunWith(RobolectricTestRunner.class)
+public class SnapCommitTest extends TouchTestSupport {
+
+    private static final int COMMIT_FRAMES = 3;
+    private static final int MOVES = COMMIT_FRAMES + 2;
+
+    private static final class CommitListener extends CornerListener {
+        private final List<Integer> startedCorners = new ArrayList<>();
+
+        @Override
+        protected int getLostVelocityPercent() {
+            // the fling velocity is capped, predict far enough to reach the corner
+            return 50;
+        }
+
+        @Override
+        protected int getSnapCommitFrames() {
+            return COMMIT_FRAMES;
+        }
+
+        @Override
+        protected void onStartMoveToCorner(@NonNull View view, int corner, @NonNull Point cornerPoint) {
+            startedCorners.add(corner);
+        }
+    }
+
+    private CommitListener listener;
+    private View view;
+
+    @Before
+    public void setUp() {
+        listener = new CommitListener();
+        view = newView();
+    }
+
+    @Test
+    public void commit_onlyDecidesTheTarget_snapStartsOnRelease() {
+        send(MotionEvent.ACTION_DOWN, 0, 300, 600);
+        for (int i = 1; i <= MOVES; i++) {
+            send(MotionEvent.ACTION_MOVE, i * 10, 300 + i * 50, 600 + i * 100);
+        }
+        assertEquals(BOT_RIGHT, listener.getCommittedTarget());
+        assertTrue(listener.startedCorners.isEmpty());
+
+        send(MotionEvent.ACTION_UP, MOVES * 10, 300 + MOVES * 50, 600 + MOVES * 100);
+        assertEquals(1, listener.startedCorners.size());
+        assertEquals(BOT_RIGHT, (int) listener.startedCorners.get(0));
+    }
+
+    @Test
+    public void releaseAwayFromTheCommit_usesTheReleasePrediction() {
+        send(MotionEvent.ACTION_DOWN, 0, 300, 600);
+        float x = 300, y = 600;
+        for (int i = 1; i <= MOVES; i++) {
+            x += 50;
+            y += 100;
+            send(MotionEvent.ACTION_MOVE, i * 10, x, y);
+        }
+        assertEquals(BOT_RIGHT, listener.getCommittedTarget());
+
+        // a late turn shorter than the commit window, after a stop so only the turn is tracked
+        long time = 1000;
+        for (int i = 0; i < COMMIT_FRAMES - 1; i++, time += 10) {
+            x -= 100;
+            y -= 200;
+            send(MotionEvent.ACTION_MOVE, time, x, y);
+        }
+        assertEquals(BOT_RIGHT, listener.getCommittedTarget());
+
+        send(MotionEvent.ACTION_UP, time, x, y);
+        assertEquals(FlingMoveToCornerListener.NO_TARGET, listener.getCommittedTarget());
+        assertEquals(1, listener.startedCorners.size());
+        assertEquals(TOP_LEFT, (int) listener.startedCorners.get(0));
+    }
+
+    private void send(int action, long eventTime, float x, float y) {
+        send(listener, view, action, eventTime, x, y);
+        // a frame of the drag springs, the prediction starts from the view
+        ShadowLooper.idleMainLooper(10, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,135 @@
+package com.mct.touchutils;
+
+import static com.mct.touchutils.TouchUtils.BOT_RIGHT;
+import static com.mct.touchutils.TouchUtils.TOP_RIGHT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.graphics.Point;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The snaps run on the shared scheduler, its frames are driven by the test
+ */
+@RunWith(RobolectricTestRunner.class)
+public class SnapGenerationTest extends TouchTestSupport {
+
+    private static final long FRAME_NANOS = 16_000_000L;
+    private static final int MAX_FRAMES = 1000;
+
+    private static final class SettleListener extends CornerListener {
+        private final List<Integer> movedCorners = new ArrayList<>();
+        private int settled, canceled;
+
+        @Override
+        protected boolean isUseSharedScheduler() {
+            return true;
+        }
+
+        @Override
+        protected void onSnapSettled(@NonNull View view, boolean canceled) {
+            settled++;
+            if (canceled) {
+                this.canceled++;
+            }
+            super.onSnapSettled(view, canceled);
+        }
+
+        @Override
+        protected void onMovedToCorner(@NonNull View view, int corner, Point cornerPoint) {
+            movedCorners.add(corner);
+        }
+    }
+
+    private SettleListener listener;
+    private View view;
+    private long frameTimeNanos;
+
+    @Before
+    public void setUp() {
+        listener = new SettleListener();
+        // the spring range goes past the corners by the size of the view
+        view = newView();
+        listener.prewarm(view);
+    }
+
+    @Test
+    public void snap_settlesOnce() {
+        listener.moveToCorner(view, BOT_RIGHT);
+        assertEquals(1, listener.getSnapGeneration());
+        assertTrue(listener.isSnapPending());
+
+        tickFrames(MAX_FRAMES);
+        assertFalse(listener.isSnapPending());
+        assertEquals(1, listener.settled);
+        assertEquals(0, listener.canceled);
+        assertEquals(1, listener.movedCorners.size());
+        assertEquals(BOT_RIGHT, (int) listener.movedCorners.get(0));
+        assertEquals(1080 - SIZE, view.getX(), 1);
+        assertEquals(2200 - SIZE, view.getY(), 1);
+
+        // nothing more once settled
+        tickFrames(10);
+        assertEquals(1, listener.settled);
+    }
+
+    @Test
+    public void retarget_settlesOnlyTheLastSnap() {
+        listener.moveToCorner(view, BOT_RIGHT);
+        tickFrames(5);
+        assertTrue(listener.isSnapPending());
+
+        listener.moveToCorner(view, TOP_RIGHT);
+        assertEquals(2, listener.getSnapGeneration());
+        tickFrames(MAX_FRAMES);
+        assertFalse(listener.isSnapPending());
+        assertEquals(1, listener.settled);
+        assertEquals(1, listener.movedCorners.size());
+        assertEquals(TOP_RIGHT, (int) listener.movedCorners.get(0));
+    }
+
+    @Test
+    public void move_supersedesThePendingSnap() {
+        listener.moveToCorner(view, BOT_RIGHT);
+        tickFrames(5);
+
+        listener.animateToFinalPosition(300, 400);
+        assertFalse(listener.isSnapPending());
+        tickFrames(MAX_FRAMES);
+        assertEquals(0, listener.settled);
+        assertTrue(listener.movedCorners.isEmpty());
+        assertEquals(300, view.getX(), 1);
+        assertEquals(400, view.getY(), 1);
+    }
+
+    @Test
+    public void clear_settlesCanceled() {
+        listener.moveToCorner(view, BOT_RIGHT);
+        tickFrames(5);
+
+        listener.clearAnimation();
+        assertFalse(listener.isSnapPending());
+        assertEquals(1, listener.settled);
+        assertEquals(1, listener.canceled);
+        assertTrue(listener.movedCorners.isEmpty());
+    }
+
+    private void tickFrames(int frames) {
+        SpringScheduler scheduler = SpringScheduler.getInstance();
+        for (int i = 0; i < frames; i++) {
+            frameTimeNanos += FRAME_NANOS;
+            scheduler.tick(frameTimeNanos);
+        }
+    }
+}
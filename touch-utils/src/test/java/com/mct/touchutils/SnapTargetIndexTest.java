@@ -0,0 +1,91 @@
+package com.mct.touchutils;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+public class SnapTargetIndexTest {
+
+    private static final float WIDTH = 1080, HEIGHT = 2200;
+
+    @Test
+    public void empty_findsNothing() {
+        SnapTargetIndex index = new SnapTargetIndex();
+        index.build();
+        assertEquals(-1, index.findNearest(10, 10));
+    }
+
+    @Test
+    public void point_resultIsThePoint() {
+        SnapTargetIndex index = new SnapTargetIndex();
+        int target = index.addPoint(100, 200, 1);
+        index.build();
+        assertEquals(target, index.findNearest(5000, -300));
+        assertEquals(100, index.getResultX(), 0);
+        assertEquals(200, index.getResultY(), 0);
+    }
+
+    @Test
+    public void segment_resultIsProjected() {
+        SnapTargetIndex index = new SnapTargetIndex();
+        index.addPoint(0, 0, 1);
+        int wall = index.addSegment(1000, 0, 1000, 2000, 1);
+        index.build();
+        assertEquals(wall, index.findNearest(900, 700));
+        assertEquals(1000, index.getResultX(), 0.01f);
+        assertEquals(700, index.getResultY(), 0.01f);
+        // clamped to the end of the segment
+        assertEquals(wall, index.findNearest(1100, 2500));
+        assertEquals(1000, index.getResultX(), 0.01f);
+        assertEquals(2000, index.getResultY(), 0.01f);
+    }
+
+    @Test
+    public void weight_attractsFromFarther() {
+        SnapTargetIndex index = new SnapTargetIndex();
+        int near = index.addPoint(0, 0, 1);
+        int heavy = index.addPoint(300, 0, 4);
+        index.build();
+        // 100 / 1 from near, 200 / 4 from heavy
+        assertEquals(heavy, index.findNearest(100, 0));
+        assertEquals(near, index.findNearest(20, 0));
+    }
+
+    @Test
+    public void findNearest_matchesBruteForce() {
+        Random random = new Random(7);
+        SnapTargetIndex index = new SnapTargetIndex();
+        float[] weights = new float[200];
+        for (int i = 0; i < weights.length; i++) {
+            float x = random.nextFloat() * WIDTH;
+            float y = random.nextFloat() * HEIGHT;
+            weights[i] = 0.5f + random.nextFloat() * 2;
+            if (i % 4 == 0) {
+                index.addSegment(x, y, x + random.nextFloat() * 400 - 200, y + random.nextFloat() * 400 - 200, weights[i]);
+            } else {
+                index.addPoint(x, y, weights[i]);
+            }
+        }
+        index.build();
+        for (int i = 0; i < 2000; i++) {
+            // also outside the area, the query must still find the targets
+            float x = random.nextFloat() * WIDTH * 1.5f - WIDTH * 0.25f;
+            float y = random.nextFloat() * HEIGHT * 1.5f - HEIGHT * 0.25f;
+            float expected = Float.MAX_VALUE;
+            for (int target = 0; target < index.size(); target++) {
+                expected = Math.min(expected, weightedDistance(index, target, x, y, weights[target]));
+            }
+            int found = index.findNearest(x, y);
+            assertEquals(expected, weightedDistance(index, found, x, y, weights[found]), 0.01f);
+        }
+    }
+
+    private static float weightedDistance(SnapTargetIndex index, int target, float x, float y, float weight) {
+        index.getNearestPoint(target, x, y);
+        float dx = index.getResultX() - x;
+        float dy = index.getResultY() - y;
+        return (float) Math.sqrt(dx * dx + dy * dy) / weight;
+    }
+}
@@ -0,0 +1,85 @@
+package com.mct.touchutils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.view.View;
+
+import androidx.dynamicanimation.animation.DynamicAnimation;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/**
+ * The frames of the scheduler are driven by the test
+ */
+@RunWith(RobolectricTestRunner.class)
+public class SpringSchedulerTest {
+
+    private static final long FRAME_NANOS = 16_000_000L;
+    private static final int MAX_FRAMES = 1000;
+
+    private SpringScheduler scheduler;
+    private View view;
+    private int channel;
+    private int ended;
+    private long frameTimeNanos;
+
+    @Before
+    public void setUp() {
+        scheduler = SpringScheduler.getInstance();
+        view = new View(ApplicationProvider.getApplicationContext());
+        channel = scheduler.acquire(view, DynamicAnimation.X, (channel, canceled) -> ended++);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.release(channel);
+    }
+
+    @Test
+    public void finalPositionOutOfRange_settlesAtTheBound() {
+        scheduler.setMinMaxValue(channel, 0, 500);
+        scheduler.animateToFinalPosition(channel, 800);
+        assertSettled(500);
+    }
+
+    @Test
+    public void rangeSetWhileRunning_clampsTheFinalPosition() {
+        scheduler.animateToFinalPosition(channel, -300);
+        runFrames(3);
+        scheduler.setMinMaxValue(channel, 0, 500);
+        assertSettled(0);
+    }
+
+    @Test
+    public void flingAgainstTheBound_settles() {
+        view.setX(400);
+        scheduler.setMinMaxValue(channel, 0, 500);
+        scheduler.setStartVelocity(channel, 20_000);
+        scheduler.animateToFinalPosition(channel, 500);
+        assertSettled(500);
+    }
+
+    private void assertSettled(float position) {
+        assertTrue(scheduler.isRunning(channel));
+        for (int i = 0; i < MAX_FRAMES && scheduler.isRunning(channel); i++) {
+            runFrames(1);
+        }
+        assertFalse(scheduler.isRunning(channel));
+        assertEquals(1, ended);
+        assertEquals(position, view.getX(), 0);
+    }
+
+    private void runFrames(int frames) {
+        for (int i = 0; i < frames; i++) {
+            frameTimeNanos += FRAME_NANOS;
+            scheduler.tick(frameTimeNanos);
+        }
+    }
+}
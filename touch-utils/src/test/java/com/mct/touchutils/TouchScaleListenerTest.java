@@ -0,0 +1,386 @@
+package com.mct.touchutils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.app.Activity;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.animation.Animation;
+import android.widget.FrameLayout;
+
+import androidx.annotation.NonNull;
+import androidx.dynamicanimation.animation.DynamicAnimation;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.mct.touchutils.TouchUtils.TouchScaleListener;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowChoreographer;
+import org.robolectric.shadows.ShadowLooper;
+import org.robolectric.util.ReflectionHelpers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@RunWith(RobolectricTestRunner.class)
+public class TouchScaleListenerTest {
+
+    private static final long FRAME_MILLIS = 16;
+    private static final int AUTO_RELEASE_DELAY = 500;
+
+    private static final class SpringListener extends TouchScaleListener {
+        @Override
+        protected int getScaleMode() {
+            return TouchUtils.SCALE_MODE_SPRING;
+        }
+
+        @Override
+        protected int getAllowAutoRelease() {
+            // the views are not attached, a long click would need a parent
+            return 0;
+        }
+    }
+
+    private static final class CountingListener extends TouchScaleListener {
+        private int clicks, longClicks;
+        private boolean isMeasured;
+        private final List<View> measuredViews = new ArrayList<>();
+
+        @Override
+        protected int getAutoReleaseDelay() {
+            return AUTO_RELEASE_DELAY;
+        }
+
+        @Override
+        protected void performClick(@NonNull View view, @NonNull MotionEvent event) {
+            clicks++;
+        }
+
+        @Override
+        protected void performLongClick(@NonNull View view, @NonNull MotionEvent event) {
+            longClicks++;
+        }
+
+        @Override
+        protected boolean isMonitorFrames() {
+            return isMeasured;
+        }
+
+        @Override
+        protected boolean isUseHardwareLayer() {
+            return isMeasured;
+        }
+
+        @Override
+        protected void onFrameStats(@NonNull View view, @NonNull FrameStats stats) {
+            measuredViews.add(view);
+        }
+    }
+
+    @Before
+    public void setUp() {
+        // a frame each 16ms, the springs are seen while they move
+        ShadowChoreographer.setPaused(true);
+        ShadowChoreographer.setFrameDelay(Duration.ofMillis(FRAME_MILLIS));
+    }
+
+    @After
+    public void tearDown() {
+        // let the springs settle, the animation handler is shared with the next test
+        runFrames(100);
+    }
+
+    @Test
+    public void springStiffness_settlesThePressInTheDuration() {
+        TouchScaleListener listener = new TouchScaleListener();
+        float stiffness = listener.getSpringStiffness();
+        // settle thresholds of the scale springs
+        float threshold = DynamicAnimation.MIN_VISIBLE_CHANGE_SCALE * 0.75f;
+        float[] values = {listener.getPressScale()};
+        float[] velocities = {0};
+        int lastUnsettled = 0;
+        for (int t = 1; t <= listener.getDuration() * 3; t++) {
+            SpringScheduler.step(values, velocities, 0, 0, stiffness, 1, 0.001);
+            if (Math.abs(values[0]) >= threshold || Math.abs(velocities[0]) >= threshold * 1000f / 16f) {
+                lastUnsettled = t;
+            }
+        }
+        assertTrue("last unsettled " + lastUnsettled, lastUnsettled <= listener.getDuration() * 1.1f);
+        assertTrue("last unsettled " + lastUnsettled, lastUnsettled >= listener.getDuration() * 0.9f);
+    }
+
+    @Test
+    public void kickVelocity_peaksAtTheReleaseScale() {
+        float stiffness = 800;
+        for (float dampingRatio : new float[]{0.2f, 0.5f, 1f, 1.5f}) {
+            float[] values = {0};
+            float[] velocities = {TouchScaleListener.getKickVelocity(0.2f, stiffness, dampingRatio)};
+            float peak = 0;
+            for (int t = 0; t < 2000; t++) {
+                SpringScheduler.step(values, velocities, 0, 0, stiffness, dampingRatio, 0.0005);
+                peak = Math.max(peak, values[0]);
+            }
+            assertEquals("damping " + dampingRatio, 0.2f, peak, 0.001f);
+        }
+    }
+
+    @Test
+    public void springMode_interruptedPress_continuesFromItsScale() {
+        SpringListener listener = new SpringListener();
+        View view = newView();
+        send(listener, view, MotionEvent.ACTION_DOWN, 0);
+        runFrames(4);
+        float pressed = view.getScaleX();
+        assertTrue("pressed " + pressed, pressed < 1 && pressed > 1 - listener.getPressScale());
+
+        // no jump back to a fixed 'from' value, the springs are retargeted
+        send(listener, view, MotionEvent.ACTION_CANCEL, 64);
+        assertEquals(pressed, view.getScaleX(), 0);
+        runFrames(100);
+        assertEquals(1, view.getScaleX(), 0);
+        assertEquals(1, view.getScaleY(), 0);
+    }
+
+    @Test
+    public void springMode_sharedListener_keepsEachPress() {
+        SpringListener listener = new SpringListener();
+        View first = newView();
+        View second = newView();
+        send(listener, first, MotionEvent.ACTION_DOWN, 0);
+        runFrames(4);
+        send(listener, second, MotionEvent.ACTION_DOWN, 64);
+        runFrames(100);
+        assertEquals(2, listener.getPressStateCount());
+
+        // the press of the second view leaves the first one pressed
+        assertEquals(1 - listener.getPressScale(), first.getScaleX(), 0.01f);
+        assertEquals(1 - listener.getPressScale(), second.getScaleX(), 0.01f);
+
+        send(listener, first, MotionEvent.ACTION_CANCEL, 1664);
+        runFrames(100);
+        assertEquals(1, first.getScaleX(), 0);
+        assertEquals(1 - listener.getPressScale(), second.getScaleX(), 0.01f);
+        assertEquals(1, listener.getPressStateCount());
+        send(listener, second, MotionEvent.ACTION_CANCEL, 3264);
+    }
+
+    @Test
+    public void springMode_pressEndsWhenTheReleaseSettles() {
+        SpringListener listener = new SpringListener();
+        View view = newView();
+        send(listener, view, MotionEvent.ACTION_DOWN, 0);
+        send(listener, view, MotionEvent.ACTION_UP, 50);
+        assertEquals(1, listener.getPressStateCount());
+        runFrames(100);
+        assertEquals(0, listener.getPressStateCount());
+    }
+
+    @Test
+    public void tap_clicksOnceAndEndsThePress() {
+        CountingListener listener = new CountingListener();
+        View view = newView();
+        send(listener, view, MotionEvent.ACTION_DOWN, 0);
+        send(listener, view, MotionEvent.ACTION_UP, 50);
+        assertEquals(1, listener.clicks);
+        assertEquals(0, listener.longClicks);
+        assertEquals(0, listener.getPressStateCount());
+
+        // the auto release of the tap was removed
+        ShadowLooper.idleMainLooper(AUTO_RELEASE_DELAY * 2, TimeUnit.MILLISECONDS);
+        assertEquals(0, listener.longClicks);
+    }
+
+    @Test
+    public void autoRelease_longClicksAndWaitsForTheLift() {
+        CountingListener listener = new CountingListener();
+        View view = newView();
+        send(listener, view, MotionEvent.ACTION_DOWN, 0);
+        ShadowLooper.idleMainLooper(AUTO_RELEASE_DELAY + 100, TimeUnit.MILLISECONDS);
+        assertEquals(0, listener.clicks);
+        assertEquals(1, listener.longClicks);
+        // released but the finger is still down
+        assertEquals(1, listener.getPressStateCount());
+
+        send(listener, view, MotionEvent.ACTION_MOVE, 700);
+        send(listener, view, MotionEvent.ACTION_UP, 710);
+        assertEquals(0, listener.clicks);
+        assertEquals(1, listener.longClicks);
+        assertEquals(0, listener.getPressStateCount());
+
+        // the next press is a new one
+        send(listener, view, MotionEvent.ACTION_DOWN, 0);
+        send(listener, view, MotionEvent.ACTION_UP, 50);
+        assertEquals(1, listener.clicks);
+        assertEquals(1, listener.longClicks);
+    }
+
+    @Test
+    public void autoReleaseThenCancel_releasesOnce() {
+        CountingListener listener = new CountingListener();
+        View view = newView();
+        send(listener, view, MotionEvent.ACTION_DOWN, 0);
+        ShadowLooper.idleMainLooper(AUTO_RELEASE_DELAY + 100, TimeUnit.MILLISECONDS);
+        send(listener, view, MotionEvent.ACTION_CANCEL, 700);
+        assertEquals(0, listener.clicks);
+        assertEquals(1, listener.longClicks);
+        assertEquals(0, listener.getPressStateCount());
+    }
+
+    @Test
+    public void sharedListener_keepsFrameStatsAndLayerPerView() {
+        CountingListener listener = new CountingListener();
+        listener.isMeasured = true;
+        View first = newView();
+        View second = newView();
+        send(listener, first, MotionEvent.ACTION_DOWN, 0);
+        send(listener, second, MotionEvent.ACTION_DOWN, 10);
+        // the press of the second view leaves the first one measured and promoted
+        assertTrue(listener.measuredViews.isEmpty());
+        assertEquals(View.LAYER_TYPE_HARDWARE, first.getLayerType());
+        assertEquals(View.LAYER_TYPE_HARDWARE, second.getLayerType());
+
+        // the release restarts the measure of its view, the press measure is reported for it
+        send(listener, first, MotionEvent.ACTION_UP, 50);
+        assertEquals(1, listener.measuredViews.size());
+        assertSame(first, listener.measuredViews.get(0));
+        assertEquals(View.LAYER_TYPE_HARDWARE, second.getLayerType());
+        send(listener, second, MotionEvent.ACTION_CANCEL, 60);
+    }
+
+    @Test
+    public void sharedListener_keepsTheGestureOfEachPressedView() {
+        CountingListener listener = new CountingListener();
+        View first = newAttachedView();
+        View second = newAttachedView();
+        int[] location = new int[2];
+        second.getLocationOnScreen(location);
+        // two fingers, the ViewGroup splits them: each view receives its own down
+        send(listener, first, MotionEvent.ACTION_DOWN, 0, location[0] + 10, location[1] + 10);
+        send(listener, second, MotionEvent.ACTION_DOWN, 10, location[0] + 10, location[1] + 10);
+        send(listener, second, MotionEvent.ACTION_MOVE, 20, location[0] + 60, location[1] + 60);
+        assertEquals(2, listener.getPressStateCount());
+
+        // the drag of the second view does not take the click of the first one
+        send(listener, first, MotionEvent.ACTION_UP, 50);
+        assertEquals(1, listener.clicks);
+        assertTrue(second.isPressed());
+
+        // the second press continues its drag instead of restarting, it does not click
+        send(listener, second, MotionEvent.ACTION_MOVE, 60, location[0] + 70, location[1] + 70);
+        send(listener, second, MotionEvent.ACTION_UP, 70, location[0] + 70, location[1] + 70);
+        assertEquals(1, listener.clicks);
+        assertEquals(0, listener.longClicks);
+    }
+
+    @Test
+    public void detach_endsThePressAtRest() {
+        SpringListener listener = new SpringListener();
+        View view = newAttachedView();
+        send(listener, view, MotionEvent.ACTION_DOWN, 0);
+        runFrames(4);
+        assertTrue(view.getScaleX() < 1);
+
+        ((ViewGroup) view.getParent()).removeView(view);
+        assertEquals(0, listener.getPressStateCount());
+        assertEquals(1, view.getScaleX(), 0);
+        runFrames(100);
+        assertEquals(1, view.getScaleX(), 0);
+    }
+
+    @Test
+    public void moveOutOfTheBounds_releases() {
+        TouchScaleListener listener = new TouchScaleListener();
+        View view = newAttachedView();
+        int[] location = new int[2];
+        view.getLocationOnScreen(location);
+        send(listener, view, MotionEvent.ACTION_DOWN, 0, location[0] + 50, location[1] + 50);
+        Animation pressed = view.getAnimation();
+        send(listener, view, MotionEvent.ACTION_MOVE, 10, location[0] + 90, location[1] + 90);
+        assertSame(pressed, view.getAnimation());
+
+        send(listener, view, MotionEvent.ACTION_MOVE, 20, location[0] + 250, location[1] + 50);
+        assertNotSame(pressed, view.getAnimation());
+    }
+
+    @Test
+    public void layoutWhilePressed_movesTheBounds() {
+        TouchScaleListener listener = new TouchScaleListener();
+        View view = newAttachedView();
+        int[] location = new int[2];
+        view.getLocationOnScreen(location);
+        send(listener, view, MotionEvent.ACTION_DOWN, 0, location[0] + 50, location[1] + 50);
+        Animation pressed = view.getAnimation();
+
+        // the bounds of the down are dropped, the finger is still on the view
+        FrameLayout.LayoutParams params = (FrameLayout.LayoutParams) view.getLayoutParams();
+        params.leftMargin = 200;
+        view.setLayoutParams(params);
+        runFrames(1);
+        send(listener, view, MotionEvent.ACTION_MOVE, 10, location[0] + 250, location[1] + 50);
+        assertSame(pressed, view.getAnimation());
+
+        send(listener, view, MotionEvent.ACTION_MOVE, 20, location[0] + 50, location[1] + 50);
+        assertNotSame(pressed, view.getAnimation());
+    }
+
+    @Test
+    public void scrollWhilePressed_movesTheBounds() {
+        TouchScaleListener listener = new TouchScaleListener();
+        View view = newAttachedView();
+        int[] location = new int[2];
+        view.getLocationOnScreen(location);
+        send(listener, view, MotionEvent.ACTION_DOWN, 0, location[0] + 50, location[1] + 50);
+        Animation pressed = view.getAnimation();
+
+        // no layout of the view, the finger follows it on screen
+        ((View) view.getParent()).scrollTo(0, 200);
+        // dispatched by the draw of the view root, robolectric does not draw
+        ReflectionHelpers.callInstanceMethod(view.getViewTreeObserver(), "dispatchOnScrollChanged");
+        send(listener, view, MotionEvent.ACTION_MOVE, 10, location[0] + 50, location[1] - 150);
+        assertSame(pressed, view.getAnimation());
+
+        send(listener, view, MotionEvent.ACTION_MOVE, 20, location[0] + 50, location[1] + 50);
+        assertNotSame(pressed, view.getAnimation());
+    }
+
+    private static void runFrames(int frames) {
+        for (int i = 0; i < frames; i++) {
+            ShadowLooper.idleMainLooper(FRAME_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static void send(TouchScaleListener listener, View view, int action, long eventTime) {
+        send(listener, view, action, eventTime, 0, 0);
+    }
+
+    private static void send(TouchScaleListener listener, View view, int action, long eventTime, float x, float y) {
+        MotionEvent event = MotionEvent.obtain(0, eventTime, action, x, y, 0);
+        listener.onTouch(view, event);
+        event.recycle();
+    }
+
+    private static View newAttachedView() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        FrameLayout root = new FrameLayout(activity);
+        View view = new View(activity);
+        root.addView(view, new FrameLayout.LayoutParams(100, 100));
+        activity.setContentView(root);
+        runFrames(1);
+        return view;
+    }
+
+    private static View newView() {
+        return new View(ApplicationProvider.getApplicationContext());
+    }
+}
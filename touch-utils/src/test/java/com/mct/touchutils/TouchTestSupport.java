@@ -0,0 +1,100 @@
+package com.mct.touchutils;
+
+import android.graphics.Rect;
+import android.view.MotionEvent;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.mct.touchutils.TouchUtils.BaseTouchListener;
+import com.mct.touchutils.TouchUtils.FlingMoveToCornerListener;
+
+import org.junit.After;
+import org.robolectric.shadows.ShadowChoreographer;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixture of the listener tests: a corner listener in a phone sized area,
+ * the events sent to the listeners and the frames of the main looper.
+ * <br/>The springs settle after each test, the animation handler is shared with the next one.
+ */
+abstract class TouchTestSupport {
+
+    static final long FRAME_MILLIS = 16;
+    // 60 Hz, the budget of a view which is not attached
+    static final long BUDGET_NANOS = 16_666_667;
+    static final int SIZE = 100;
+    // about 6 seconds, a snap across the area settles in less
+    static final int SETTLE_FRAMES = 400;
+
+    /**
+     * Snap to the corners of a 1080 x 2200 area, the tests extend it with what they observe
+     */
+    static class CornerListener extends FlingMoveToCornerListener {
+        @NonNull
+        @Override
+        protected Rect initArea(View view) {
+            return new Rect(0, 0, 1080, 2200);
+        }
+    }
+
+    @After
+    public void settleSprings() {
+        settle();
+    }
+
+    /**
+     * A frame each {@link #FRAME_MILLIS}, the springs are seen while they move
+     */
+    static void pauseChoreographer() {
+        ShadowChoreographer.setPaused(true);
+        ShadowChoreographer.setFrameDelay(Duration.ofMillis(FRAME_MILLIS));
+    }
+
+    static void runFrames(int frames) {
+        for (int i = 0; i < frames; i++) {
+            ShadowLooper.idleMainLooper(FRAME_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    static void settle() {
+        runFrames(SETTLE_FRAMES);
+    }
+
+    static void send(@NonNull BaseTouchListener listener, @NonNull View view, int action, long eventTime, float x, float y) {
+        MotionEvent event = MotionEvent.obtain(0, eventTime, action, x, y, 0);
+        listener.onTouch(view, event);
+        event.recycle();
+    }
+
+    /**
+     * The moves and the release of a fling to the bottom right after a down at (300, 600),
+     * a frame runs after each move
+     */
+    static void fling(@NonNull BaseTouchListener listener, @NonNull View view, long downTime) {
+        for (int i = 1; i <= 5; i++) {
+            send(listener, view, MotionEvent.ACTION_MOVE, downTime + i * FRAME_MILLIS, 300 + i * 20, 600 + i * 40);
+            runFrames(1);
+        }
+        send(listener, view, MotionEvent.ACTION_UP, downTime + 6 * FRAME_MILLIS, 400, 800);
+    }
+
+    /**
+     * A view of {@link #SIZE} laid out at the origin, not attached
+     */
+    @NonNull
+    static View newView() {
+        return newView(SIZE);
+    }
+
+    @NonNull
+    static View newView(int size) {
+        View view = new View(ApplicationProvider.getApplicationContext());
+        view.layout(0, 0, size, size);
+        return view;
+    }
+}
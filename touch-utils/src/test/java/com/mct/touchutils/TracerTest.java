@@ -0,0 +1,123 @@
+package com.mct.touchutils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.view.MotionEvent;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+
+import com.mct.touchutils.TouchUtils.Tracer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+public class TracerTest extends TouchTestSupport {
+
+    private static final class RecordingTracer implements Tracer {
+        private final List<String> sections = new ArrayList<>();
+        private final List<Integer> asyncBegins = new ArrayList<>();
+        private final List<Integer> asyncEnds = new ArrayList<>();
+        private int depth;
+
+        @Override
+        public void beginSection(@NonNull String name) {
+            sections.add(name);
+            depth++;
+        }
+
+        @Override
+        public void endSection() {
+            depth--;
+        }
+
+        @Override
+        public void beginAsyncSection(@NonNull String name, int cookie) {
+            asyncBegins.add(cookie);
+        }
+
+        @Override
+        public void endAsyncSection(@NonNull String name, int cookie) {
+            asyncEnds.add(cookie);
+        }
+    }
+
+    private RecordingTracer tracer;
+    private CornerListener listener;
+    private View view;
+
+    @Before
+    public void setUp() {
+        tracer = new RecordingTracer();
+        TouchUtils.setTracer(tracer);
+        listener = new CornerListener();
+        view = newView();
+    }
+
+    @After
+    public void tearDown() {
+        TouchUtils.setTracer(null);
+    }
+
+    @Test
+    public void gesture_sectionsBalanced_asyncSliceUntilSettled() {
+        send(MotionEvent.ACTION_DOWN, 50, 50);
+        send(MotionEvent.ACTION_MOVE, 150, 250);
+        send(MotionEvent.ACTION_MOVE, 250, 450);
+        send(MotionEvent.ACTION_UP, 250, 450);
+        assertEquals(0, tracer.depth);
+        assertTrue(tracer.sections.contains("TouchMoveUtils#handleFling"));
+        assertEquals(1, tracer.asyncBegins.size());
+        // the view still moves to its corner
+        assertEquals(0, tracer.asyncEnds.size());
+
+        settle();
+        assertEquals(tracer.asyncBegins, tracer.asyncEnds);
+        assertTrue(tracer.sections.contains("TouchMoveUtils#setValue"));
+        assertEquals(0, tracer.depth);
+    }
+
+    @Test
+    public void nextGesture_newCookie() {
+        send(MotionEvent.ACTION_DOWN, 50, 50);
+        send(MotionEvent.ACTION_UP, 50, 50);
+        send(MotionEvent.ACTION_DOWN, 50, 50);
+        assertEquals(2, tracer.asyncBegins.size());
+        assertTrue(tracer.asyncBegins.get(0) < tracer.asyncBegins.get(1));
+        // the first slice ends when the next one begins
+        assertEquals(tracer.asyncBegins.get(0), tracer.asyncEnds.get(0));
+    }
+
+    @Test
+    public void firstDown_hasItsOwnSection() {
+        send(MotionEvent.ACTION_DOWN, 50, 50);
+        send(MotionEvent.ACTION_UP, 50, 50);
+        send(MotionEvent.ACTION_DOWN, 50, 50);
+        send(MotionEvent.ACTION_UP, 50, 50);
+        assertEquals(1, count("TouchMoveUtils#onFirstDown"));
+        assertEquals(1, count("TouchMoveUtils#onDown"));
+        assertEquals(2, listener.getDownCount());
+    }
+
+    private int count(String section) {
+        int count = 0;
+        for (String name : tracer.sections) {
+            if (name.equals(section)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void send(int action, float x, float y) {
+        send(listener, view, action, 0, x, y);
+    }
+}
@@ -0,0 +1,156 @@
+package com.mct.touchutils;
+
+import static org.junit.Assert.assertEquals;
+
+import android.view.MotionEvent;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+
+import com.mct.touchutils.TouchUtils.TransformTouchListener;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class TransformTouchListenerTest extends TouchTestSupport {
+
+    private static final long FRAME_NANOS = 16_000_000L;
+
+    private static class TargetListener extends TransformTouchListener {
+        private float translationX, translationY, scale = 1, rotation;
+
+        @Override
+        protected void onTransform(@NonNull View view, float translationX, float translationY, float scale, float rotation) {
+            this.translationX = translationX;
+            this.translationY = translationY;
+            this.scale = scale;
+            this.rotation = rotation;
+        }
+    }
+
+    private TargetListener listener;
+    private View view;
+
+    @Before
+    public void setUp() {
+        listener = new TargetListener();
+        // the pivot is at (100, 100)
+        view = newView(200);
+    }
+
+    @Test
+    public void drag_followsThePointer() {
+        send(MotionEvent.ACTION_DOWN, 10, 10);
+        send(MotionEvent.ACTION_MOVE, 110, 60);
+        send(MotionEvent.ACTION_UP, 110, 60);
+
+        settle();
+        assertEquals(100, view.getTranslationX(), 1);
+        assertEquals(50, view.getTranslationY(), 1);
+        assertEquals(1, view.getScaleX(), 0);
+        assertEquals(0, view.getRotation(), 0);
+    }
+
+    @Test
+    public void pinch_scalesAroundThePivot() {
+        send(MotionEvent.ACTION_DOWN, 50, 100);
+        sendTwo(MotionEvent.ACTION_POINTER_DOWN, 50, 100, 150, 100);
+        sendTwo(MotionEvent.ACTION_MOVE, 0, 100, 200, 100);
+
+        assertEquals(2, listener.scale, 0.001f);
+        assertEquals(0, listener.rotation, 0.001f);
+        // the fingers are centered on the pivot, the view stays in place
+        assertEquals(0, listener.translationX, 0.001f);
+        assertEquals(0, listener.translationY, 0.001f);
+    }
+
+    @Test
+    public void twist_pastHalfATurn_keepsTheDirection() {
+        send(MotionEvent.ACTION_DOWN, 50, 100);
+        sendTwo(MotionEvent.ACTION_POINTER_DOWN, 50, 100, 150, 100);
+        // a quarter turn per move around the center (100, 100)
+        sendTwo(MotionEvent.ACTION_MOVE, 100, 50, 100, 150);
+        sendTwo(MotionEvent.ACTION_MOVE, 150, 100, 50, 100);
+        sendTwo(MotionEvent.ACTION_MOVE, 100, 150, 100, 50);
+
+        assertEquals(270, listener.rotation, 0.001f);
+    }
+
+    @Test
+    public void pointerUp_handsOverToTheOtherPointer() {
+        send(MotionEvent.ACTION_DOWN, 50, 100);
+        sendTwo(MotionEvent.ACTION_POINTER_DOWN, 50, 100, 150, 100);
+        // the first pointer lifts, the second one keeps dragging from where it is
+        sendTwo(MotionEvent.ACTION_POINTER_UP, 50, 100, 150, 100);
+        sendOne(1, MotionEvent.ACTION_MOVE, 170, 130);
+
+        assertEquals(20, listener.translationX, 0.001f);
+        assertEquals(30, listener.translationY, 0.001f);
+        assertEquals(1, listener.scale, 0);
+    }
+
+    @Test
+    public void drag_onScheduler_followsThePointer() {
+        listener = new TargetListener() {
+            @Override
+            protected boolean isUseSharedScheduler() {
+                return true;
+            }
+        };
+        send(MotionEvent.ACTION_DOWN, 10, 10);
+        send(MotionEvent.ACTION_MOVE, 110, 60);
+        send(MotionEvent.ACTION_UP, 110, 60);
+
+        // the frames of the scheduler are driven by the test
+        SpringScheduler scheduler = SpringScheduler.getInstance();
+        long frameTimeNanos = 0;
+        for (int i = 0; i < 300 && scheduler.getActiveCount() > 0; i++) {
+            frameTimeNanos += FRAME_NANOS;
+            scheduler.tick(frameTimeNanos);
+        }
+        assertEquals(0, scheduler.getActiveCount());
+        assertEquals(100, view.getTranslationX(), 1);
+        assertEquals(50, view.getTranslationY(), 1);
+        assertEquals(1, view.getScaleX(), 0);
+        assertEquals(0, view.getRotation(), 0);
+    }
+
+    private void send(int action, float x, float y) {
+        sendOne(0, action, x, y);
+    }
+
+    private void sendOne(int id, int action, float x, float y) {
+        MotionEvent.PointerProperties[] properties = {new MotionEvent.PointerProperties()};
+        properties[0].id = id;
+        MotionEvent.PointerCoords[] coords = {new MotionEvent.PointerCoords()};
+        coords[0].x = x;
+        coords[0].y = y;
+        dispatch(MotionEvent.obtain(0, 0, action, 1, properties, coords, 0, 0, 1, 1, 0, 0, 0, 0));
+    }
+
+    /**
+     * Pointer down / up are sent for the second pointer, index 1
+     */
+    private void sendTwo(int action, float x0, float y0, float x1, float y1) {
+        MotionEvent.PointerProperties[] properties = {new MotionEvent.PointerProperties(), new MotionEvent.PointerProperties()};
+        properties[0].id = 0;
+        properties[1].id = 1;
+        MotionEvent.PointerCoords[] coords = {new MotionEvent.PointerCoords(), new MotionEvent.PointerCoords()};
+        coords[0].x = x0;
+        coords[0].y = y0;
+        coords[1].x = x1;
+        coords[1].y = y1;
+        if (action == MotionEvent.ACTION_POINTER_DOWN) {
+            action |= 1 << MotionEvent.ACTION_POINTER_INDEX_SHIFT;
+        }
+        dispatch(MotionEvent.obtain(0, 0, action, 2, properties, coords, 0, 0, 1, 1, 0, 0, 0, 0));
+    }
+
+    private void dispatch(MotionEvent event) {
+        listener.onTouch(view, event);
+        event.recycle();
+    }
+}
@@ -0,0 +1,132 @@
+package com.mct.touchutils;
+
+import static com.mct.touchutils.TouchUtils.VELOCITY_IMPULSE;
+import static com.mct.touchutils.TouchUtils.VELOCITY_LSQ2;
+import static com.mct.touchutils.TouchUtils.VELOCITY_TRACKER;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class VelocityEstimatorTest {
+
+    private static final float MAX_VELOCITY = 100_000;
+
+    @Test
+    public void lsq2_constantVelocity() {
+        VelocityEstimator estimator = new VelocityEstimator(VELOCITY_LSQ2);
+        for (long t = 0; t <= 80; t += 8) {
+            estimator.addSample(t, 2 * t, -t);
+        }
+        estimator.computeCurrentVelocity(1000, MAX_VELOCITY);
+        assertEquals(2000, estimator.getXVelocity(), 1);
+        assertEquals(-1000, estimator.getYVelocity(), 1);
+    }
+
+    @Test
+    public void lsq2_acceleration() {
+        VelocityEstimator estimator = new VelocityEstimator(VELOCITY_LSQ2);
+        for (long t = 0; t <= 80; t += 8) {
+            estimator.addSample(t, t * t / 10f, 0);
+        }
+        estimator.computeCurrentVelocity(1000, MAX_VELOCITY);
+        // d/dt (t^2 / 10) at t = 80 ms
+        assertEquals(16_000, estimator.getXVelocity(), 10);
+    }
+
+    @Test
+    public void lsq2_twoSamples() {
+        VelocityEstimator estimator = new VelocityEstimator(VELOCITY_LSQ2);
+        estimator.addSample(0, 0, 0);
+        estimator.addSample(10, 5, 0);
+        estimator.computeCurrentVelocity(1000, MAX_VELOCITY);
+        assertEquals(500, estimator.getXVelocity(), 1);
+    }
+
+    @Test
+    public void impulse_constantVelocity() {
+        VelocityEstimator estimator = new VelocityEstimator(VELOCITY_IMPULSE);
+        for (long t = 0; t <= 80; t += 8) {
+            estimator.addSample(t, 3 * t, 0);
+        }
+        estimator.computeCurrentVelocity(1000, MAX_VELOCITY);
+        assertEquals(3000, estimator.getXVelocity(), 1);
+        assertEquals(0, estimator.getYVelocity(), 0);
+    }
+
+    @Test
+    public void impulse_keepsDirection() {
+        VelocityEstimator estimator = new VelocityEstimator(VELOCITY_IMPULSE);
+        for (long t = 0; t <= 80; t += 8) {
+            estimator.addSample(t, 0, -t);
+        }
+        estimator.computeCurrentVelocity(1000, MAX_VELOCITY);
+        assertEquals(-1000, estimator.getYVelocity(), 1);
+    }
+
+    @Test
+    public void onlySamplesOfTheHorizonCount() {
+        VelocityEstimator estimator = new VelocityEstimator(VELOCITY_LSQ2);
+        // slow then fast, the slow part is older than the horizon
+        long t = 0;
+        for (; t <= 200; t += 8) {
+            estimator.addSample(t, t / 10f, 0);
+        }
+        float x = t / 10f;
+        for (long end = t + VelocityEstimator.HORIZON_MS + 16; t <= end; t += 8) {
+            estimator.addSample(t, x += 40, 0);
+        }
+        estimator.computeCurrentVelocity(1000, MAX_VELOCITY);
+        assertEquals(5000, estimator.getXVelocity(), 1);
+    }
+
+    @Test
+    public void stopThenLift_noVelocity() {
+        VelocityEstimator estimator = new VelocityEstimator(VELOCITY_LSQ2);
+        for (long t = 0; t <= 80; t += 8) {
+            estimator.addSample(t, 2 * t, 0);
+        }
+        // the finger rests before it lifts
+        estimator.addRelease(80 + VelocityEstimator.STOPPED_MS + 1);
+        estimator.computeCurrentVelocity(1000, MAX_VELOCITY);
+        assertEquals(0, estimator.getXVelocity(), 0);
+    }
+
+    @Test
+    public void liftWhileMoving_keepsVelocity() {
+        VelocityEstimator estimator = new VelocityEstimator(VELOCITY_IMPULSE);
+        for (long t = 0; t <= 80; t += 8) {
+            estimator.addSample(t, 2 * t, 0);
+        }
+        estimator.addRelease(88);
+        estimator.computeCurrentVelocity(1000, MAX_VELOCITY);
+        assertEquals(2000, estimator.getXVelocity(), 1);
+    }
+
+    @Test
+    public void pauseBetweenSamples_resetsHistory() {
+        VelocityEstimator estimator = new VelocityEstimator(VELOCITY_LSQ2);
+        for (long t = 0; t <= 80; t += 8) {
+            estimator.addSample(t, 10 * t, 0);
+        }
+        estimator.addSample(200, 800, 0);
+        estimator.computeCurrentVelocity(1000, MAX_VELOCITY);
+        assertEquals(0, estimator.getXVelocity(), 0);
+    }
+
+    @Test
+    public void maxVelocity() {
+        VelocityEstimator estimator = new VelocityEstimator(VELOCITY_LSQ2);
+        for (long t = 0; t <= 80; t += 8) {
+            estimator.addSample(t, 100 * t, -100 * t);
+        }
+        estimator.computeCurrentVelocity(1000, 8000);
+        assertEquals(8000, estimator.getXVelocity(), 0);
+        assertEquals(-8000, estimator.getYVelocity(), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void trackerStrategy_notEstimated() {
+        new VelocityEstimator(VELOCITY_TRACKER);
+    }
+
+}
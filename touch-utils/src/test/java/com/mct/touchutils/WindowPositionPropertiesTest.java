@@ -0,0 +1,123 @@
+package com.mct.touchutils;
+
+import static org.junit.Assert.assertEquals;
+
+import android.app.Activity;
+import android.view.Display;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.WindowManager;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.concurrent.TimeUnit;
+
+@RunWith(RobolectricTestRunner.class)
+public class WindowPositionPropertiesTest {
+
+    private static final class CountingWindowManager implements WindowManager {
+        private int updates;
+
+        @Override
+        public Display getDefaultDisplay() {
+            return null;
+        }
+
+        @Override
+        public void removeViewImmediate(View view) {
+        }
+
+        @Override
+        public void addView(View view, ViewGroup.LayoutParams params) {
+        }
+
+        @Override
+        public void updateViewLayout(View view, ViewGroup.LayoutParams params) {
+            updates++;
+        }
+
+        @Override
+        public void removeView(View view) {
+        }
+    }
+
+    private CountingWindowManager windowManager;
+    private WindowManager.LayoutParams params;
+    private WindowPositionProperties properties;
+    private View view;
+
+    @Before
+    public void setUp() {
+        windowManager = new CountingWindowManager();
+        params = new WindowManager.LayoutParams();
+        properties = new WindowPositionProperties(windowManager, params);
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        view = new View(activity);
+        activity.setContentView(view);
+        nextFrame();
+    }
+
+    @Test
+    public void bothAxes_committedOnceAtOnce() {
+        for (int i = 1; i <= 5; i++) {
+            properties.getPropX().setValue(view, 10 * i);
+            assertEquals(i - 1, windowManager.updates);
+            properties.getPropY().setValue(view, 20 * i);
+            assertEquals(i, windowManager.updates);
+            nextFrame();
+            assertEquals(i, windowManager.updates);
+        }
+        assertEquals(50, params.x);
+        assertEquals(100, params.y);
+    }
+
+    @Test
+    public void singleAxis_committedOnTheNextFrame_thenAtOnce() {
+        properties.getPropX().setValue(view, 10);
+        assertEquals(0, windowManager.updates);
+        nextFrame();
+        assertEquals(1, windowManager.updates);
+
+        // only x moves, its writes do not wait anymore
+        properties.getPropX().setValue(view, 20);
+        assertEquals(2, windowManager.updates);
+
+        // y moves again, x waits for it
+        properties.getPropY().setValue(view, 30);
+        properties.getPropX().setValue(view, 40);
+        assertEquals(3, windowManager.updates);
+        properties.getPropX().setValue(view, 50);
+        assertEquals(3, windowManager.updates);
+        nextFrame();
+        assertEquals(4, windowManager.updates);
+    }
+
+    @Test
+    public void unchangedPosition_isNotCommitted() {
+        properties.getPropX().setValue(view, 10);
+        properties.getPropY().setValue(view, 20);
+        assertEquals(1, windowManager.updates);
+        properties.getPropX().setValue(view, 10.4f);
+        properties.getPropY().setValue(view, 20.2f);
+        properties.commit();
+        nextFrame();
+        assertEquals(1, windowManager.updates);
+    }
+
+    @Test
+    public void cancel_dropsThePendingCommit() {
+        properties.getPropY().setValue(view, 10);
+        properties.cancel();
+        nextFrame();
+        assertEquals(0, windowManager.updates);
+    }
+
+    private static void nextFrame() {
+        ShadowLooper.idleMainLooper(16, TimeUnit.MILLISECONDS);
+    }
+}
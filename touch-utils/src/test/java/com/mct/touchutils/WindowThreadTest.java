@@ -0,0 +1,94 @@
+package com.mct.touchutils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.os.Looper;
+import android.view.MotionEvent;
+import android.view.View;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.mct.touchutils.TouchUtils.TouchScaleListener;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.concurrent.TimeUnit;
+
+@RunWith(RobolectricTestRunner.class)
+public class WindowThreadTest {
+
+    private static final long FRAME_NANOS = 16_000_000L;
+
+    private WindowThread windowThread;
+
+    @Before
+    public void setUp() {
+        windowThread = new WindowThread("window");
+    }
+
+    @After
+    public void tearDown() {
+        windowThread.quit();
+    }
+
+    @Test
+    public void post_runsOnTheWindowThread() {
+        Looper[] looper = new Looper[1];
+        boolean[] isRunNow = new boolean[1];
+        windowThread.post(() -> {
+            looper[0] = Looper.myLooper();
+            boolean[] isNestedRun = new boolean[1];
+            // already on the thread, run now
+            windowThread.post(() -> isNestedRun[0] = true);
+            isRunNow[0] = isNestedRun[0];
+        });
+        assertFalse(windowThread.isCurrentThread());
+        idle();
+        assertSame(windowThread.getLooper(), looper[0]);
+        assertTrue(isRunNow[0]);
+    }
+
+    @Test
+    public void scaleSpring_offTheMainThread_runsOnTheScheduler() {
+        TouchScaleListener listener = new TouchScaleListener() {
+            @Override
+            protected int getScaleMode() {
+                return TouchUtils.SCALE_MODE_SPRING;
+            }
+
+            @Override
+            protected int getAllowAutoRelease() {
+                return 0;
+            }
+        };
+        View view = new View(ApplicationProvider.getApplicationContext());
+        float[] scale = new float[1];
+        windowThread.post(() -> {
+            MotionEvent event = MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, 0, 0, 0);
+            listener.onTouch(view, event);
+            event.recycle();
+            // the scheduler of this thread, its frames are driven by the test
+            SpringScheduler scheduler = SpringScheduler.getInstance();
+            long frameTimeNanos = 0;
+            for (int i = 0; i < 300 && scheduler.getActiveCount() > 0; i++) {
+                frameTimeNanos += FRAME_NANOS;
+                scheduler.tick(frameTimeNanos);
+            }
+            scale[0] = view.getScaleX();
+        });
+        idle();
+        assertEquals(1 - listener.getPressScale(), scale[0], 0.01f);
+    }
+
+    private void idle() {
+        shadowOf(windowThread.getLooper()).idleFor(1, TimeUnit.SECONDS);
+    }
+}